@@ -0,0 +1,134 @@
+package benchmark;
+
+import main.FollowPath;
+import main.MappedGrid;
+import main.PathSolver;
+import main.PreparedMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FollowPathBenchmark {
+
+    @Param({"SPIRAL", "SERPENTINE", "CROSSINGS", "SPARSE"})
+    private MapGenerator.Shape shape;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private char[][] map;
+    private FollowPath followPath;
+    private FollowPath mappedFollowPath;
+    private FollowPath indexedFollowPath;
+    private FollowPath connectedFollowPath;
+    private FollowPath bidirectionalFollowPath;
+    private PreparedMap preparedMap;
+    private final PathSolver solver = new PathSolver();
+    private Path mapFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        map = MapGenerator.generate(shape, size);
+        followPath = new FollowPath();
+        followPath.setMap(map);
+
+        mapFile = Files.createTempFile("benchmark-map", ".txt");
+        try(var writer = Files.newBufferedWriter(mapFile, StandardCharsets.US_ASCII)) {
+            for(char[] row : map) {
+                writer.write(row);
+                writer.write('\n');
+            }
+        }
+        mappedFollowPath = new FollowPath();
+        mappedFollowPath.setGrid(MappedGrid.open(mapFile));
+
+        // The segment index is built by the first solve, outside of the measurement
+        indexedFollowPath = new FollowPath();
+        indexedFollowPath.setMap(map);
+        indexedFollowPath.setSegmentIndex(true);
+        indexedFollowPath.start();
+
+        connectedFollowPath = new FollowPath();
+        connectedFollowPath.setMap(map);
+        connectedFollowPath.setConnectivityIndex(true);
+        connectedFollowPath.start();
+
+        bidirectionalFollowPath = new FollowPath();
+        bidirectionalFollowPath.setMap(map);
+        bidirectionalFollowPath.setBidirectional(true);
+
+        preparedMap = PreparedMap.of(map);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(mapFile);
+    }
+
+    @Benchmark
+    public int[] getStartingPosition() {
+        return followPath.getStartingPosition();
+    }
+
+    @Benchmark
+    public Map<String, String> start() {
+        return followPath.start();
+    }
+
+    // Packing the char[][] into the solver's grid
+    @Benchmark
+    public FollowPath setMap() {
+        FollowPath packed = new FollowPath();
+        packed.setMap(map);
+        return packed;
+    }
+
+    @Benchmark
+    public Map<String, String> startWithSegmentIndex() {
+        return indexedFollowPath.start();
+    }
+
+    @Benchmark
+    public Map<String, String> startWithConnectivityIndex() {
+        return connectedFollowPath.start();
+    }
+
+    @Benchmark
+    public Map<String, String> startBidirectional() {
+        return bidirectionalFollowPath.start();
+    }
+
+    @Benchmark
+    public Map<String, String> startPrepared() {
+        return solver.start(preparedMap);
+    }
+
+    // Checking and indexing the map once, which startPrepared does not pay for
+    @Benchmark
+    public PreparedMap prepare() {
+        return PreparedMap.of(map);
+    }
+
+    @Benchmark
+    public Map<String, String> startOnMappedFile() {
+        return mappedFollowPath.start();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FollowPathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Generating valid synthetic maps of roughly size x size cells, shaped like the maps we see in production
+public final class MapGenerator {
+
+    public enum Shape {
+        // One long path spiralling from the outer edge into the middle
+        SPIRAL,
+        // Horizontal rows walked back and forth, joined at the edges
+        SERPENTINE,
+        // A serpentine crossed by a second, vertical serpentine with letters on every crossing and on turns
+        CROSSINGS,
+        // A serpentine with wide gaps between the rows, about 96% of the cells are empty
+        SPARSE
+    }
+
+    private static final int LETTER_SPACING = 7;
+    private static final int SPARSE_ROW_SPACING = 25;
+
+    private MapGenerator() {
+    }
+
+    public static char[][] generate(Shape shape, int size) {
+        if(size < 5) throw new IllegalArgumentException("Maps have to be at least 5x5");
+        return switch (shape) {
+            case SPIRAL -> spiral(size);
+            case SERPENTINE -> serpentine(size, 2);
+            case CROSSINGS -> crossings(size);
+            case SPARSE -> serpentine(size, SPARSE_ROW_SPACING);
+        };
+    }
+
+    private static char[][] spiral(int size) {
+        List<int[]> turns = new ArrayList<>();
+        int top = 0;
+        int left = 0;
+        int bottom = size - 1;
+        int right = size - 1;
+        turns.add(new int[]{top, left});
+        // Every ring stays two cells away from the previous one, so the path never touches itself
+        while(right - left >= 4 && bottom - top >= 4) {
+            turns.add(new int[]{top, right});
+            turns.add(new int[]{bottom, right});
+            turns.add(new int[]{bottom, left});
+            turns.add(new int[]{top + 2, left});
+            top += 2;
+            left += 2;
+            bottom -= 2;
+            right -= 2;
+        }
+        turns.add(new int[]{top, right});
+
+        char[][] map = draw(size, size, turns);
+        addLetters(map);
+        return map;
+    }
+
+    private static char[][] serpentine(int size, int rowSpacing) {
+        List<int[]> turns = new ArrayList<>();
+        for(int row = 0, i = 0; row < size; row += rowSpacing, i++) {
+            boolean leftToRight = i % 2 == 0;
+            turns.add(new int[]{row, leftToRight ? 0 : size - 1});
+            turns.add(new int[]{row, leftToRight ? size - 1 : 0});
+        }
+
+        char[][] map = draw(size, size, turns);
+        addLetters(map);
+        return map;
+    }
+
+    private static char[][] crossings(int size) {
+        // An odd width keeps the vertical serpentine on odd columns, away from the horizontal one's turns on the edges
+        int width = size % 2 == 1 ? size : size - 1;
+        int horizontalRows = Math.max(2, (size - 3) / 2 / 2 * 2);
+        int bottom = 2 * horizontalRows + 2;
+
+        List<int[]> turns = new ArrayList<>();
+        for(int i = 0; i < horizontalRows; i++) {
+            int row = 2 + 2 * i;
+            boolean leftToRight = i % 2 == 0;
+            turns.add(new int[]{row, leftToRight ? 0 : width - 1});
+            turns.add(new int[]{row, leftToRight ? width - 1 : 0});
+        }
+        // Going down from the last horizontal row into the vertical serpentine, which crosses every horizontal row
+        turns.add(new int[]{bottom, 0});
+        for(int column = 1, i = 0; column < width - 1; column += 2, i++) {
+            boolean upwards = i % 2 == 0;
+            turns.add(new int[]{upwards ? bottom : 0, column});
+            turns.add(new int[]{upwards ? 0 : bottom, column});
+        }
+
+        char[][] map = draw(bottom + 1, width, turns);
+        // Letters on the turns of the horizontal serpentine
+        for(int i = 0; i < horizontalRows; i += 2) {
+            map[2 + 2 * i][width - 1] = (char) ('A' + i % 26);
+        }
+        return map;
+    }
+
+    // Drawing straight lines between the turns, cells where the path crosses itself become letters
+    private static char[][] draw(int rows, int columns, List<int[]> turns) {
+        char[][] map = new char[rows][columns];
+        for(char[] row : map) Arrays.fill(row, ' ');
+
+        int crossings = 0;
+        for(int i = 1; i < turns.size(); i++) {
+            int[] from = turns.get(i - 1);
+            int[] to = turns.get(i);
+            int rowStep = Integer.signum(to[0] - from[0]);
+            int columnStep = Integer.signum(to[1] - from[1]);
+            for(int row = from[0] + rowStep, column = from[1] + columnStep; row != to[0] || column != to[1]; row += rowStep, column += columnStep) {
+                if(map[row][column] == ' ') {
+                    map[row][column] = rowStep == 0 ? '-' : '|';
+                } else {
+                    map[row][column] = (char) ('A' + crossings++ % 26);
+                }
+            }
+            map[to[0]][to[1]] = '+';
+        }
+
+        int[] start = turns.get(0);
+        int[] end = turns.get(turns.size() - 1);
+        map[start[0]][start[1]] = '@';
+        map[end[0]][end[1]] = 'x';
+        return map;
+    }
+
+    // Replacing every few straight cells of a row with a letter
+    private static void addLetters(char[][] map) {
+        for(int i = 0; i < map.length; i++) {
+            for(int j = 2; j < map[i].length - 2; j += LETTER_SPACING) {
+                if(map[i][j] == '-' && map[i][j - 1] == '-' && map[i][j + 1] == '-') {
+                    map[i][j] = (char) ('A' + (i + j) % 26);
+                }
+            }
+        }
+    }
+}
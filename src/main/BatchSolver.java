@@ -0,0 +1,71 @@
+package main;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Solving many maps in parallel, every map gets its own FollowPath as it keeps the map in a mutable field
+public final class BatchSolver implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    // The executor is not shut down when the solver is closed
+    public BatchSolver(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private BatchSolver(ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public static BatchSolver forkJoin(int parallelism) {
+        return new BatchSolver(new ForkJoinPool(parallelism), true);
+    }
+
+    public static BatchSolver forkJoin() {
+        return forkJoin(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static BatchSolver virtualThreads() {
+        return new BatchSolver(VirtualThreads.newThreadPerTaskExecutor(), true);
+    }
+
+    // Results come back in the same order as the maps
+    public List<Outcome> solveAll(Collection<char[][]> maps) {
+        return solveAll(maps.stream());
+    }
+
+    public List<Outcome> solveAll(Stream<char[][]> maps) {
+        List<CompletableFuture<Outcome>> futures = maps
+                .map(map -> CompletableFuture.supplyAsync(() -> solve(map), executor))
+                .toList();
+
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    static Outcome solve(char[][] map) {
+        FollowPath followPath = new FollowPath();
+        followPath.setMap(map);
+        SolveResult result = followPath.tryStart();
+        return result.isSuccess() ? new Outcome(result.orThrow(), null) : new Outcome(null, result.error().message());
+    }
+
+    @Override
+    public void close() {
+        if(ownsExecutor) executor.shutdown();
+    }
+
+    // Either the Letters/Path result of a map or the message of the error it was rejected with
+    public record Outcome(Map<String, String> result, String error) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static main.Cells.FROM_ABOVE;
+import static main.Cells.FROM_BELOW;
+import static main.Cells.FROM_LEFT;
+import static main.Cells.FROM_RIGHT;
+
+// Following a long path from both ends at once. The calling thread walks forward from '@' as usual, while a second
+// thread walks backward from the 'x' and claims every (cell, direction) from which the forward walk is certain to reach the 'x'.
+// The backward walk builds its half of the result as it goes: the characters of the path with their cells, and where its
+// letters are. Once the forward walk enters a claimed cell in the claimed direction, that half is handed to the sink
+// in stretches between letters, only its letters are checked against those the forward walk collected.
+//
+// Letters, Path and errors are exactly those of the forward walk:
+// - the backward walk only extends its chain to a cell if Traversal.decide() sends the path from that cell into the chain,
+//   and it stops wherever more than one way could lead into the chain (or at the '@', or when it runs in a circle)
+// - a cell the path passes twice (a line crossed straight through by the other line, a letter on a crossing) is claimed
+//   per direction, so the forward walk joins the chain on the pass that matches
+// - letters of the joined half are collected in forward order, skipping those the forward half already collected
+// - it only walks backward on flat grids with exactly one 'x'. With more, which one the path reaches is only known by
+//   walking forward, so the forward walk does all the work (as it does for the part the backward walk could not claim).
+//
+// The claims (a byte per cell of the padded grid) and the chain are kept for the next solve, only the claims of the chain
+// are cleared once the backward walk ended. So an instance must not be used by more than one thread at a time.
+final class BidirectionalTraversal {
+
+    // Threads of the backward walks, kept for a while between solves
+    private static final ExecutorService BACKWARD_WALKS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "backward-walk");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Bit of every direction a cell is claimed for, all zero between solves (but for the claims of a pending walk)
+    private byte[] claims = new byte[0];
+    private Chain chain = new Chain();
+    // Backward walk of the previous solve which hadn't ended yet when the solve did, and its grid
+    private Future<?> pendingWalk;
+    private FlatGrid pendingGrid;
+
+    // Same as Traversal.walk without a segment index
+    SolveError walk(FlatGrid grid, int rowIndex, int columnIndex, VisitedCells letterIndexes, PathSink sink, TraversalCounters counters,
+                    TraversalBudget budget) {
+        int direction = Traversal.startDirection(grid, rowIndex, columnIndex);
+        if(direction < 0) return new SolveError(Traversal.ERROR_KINDS[-1 - direction], rowIndex, columnIndex, 0);
+
+        if(pendingWalk != null) clear(pendingWalk, pendingGrid);
+        if(claims.length < grid.size()) claims = new byte[grid.size()];
+        Backward backward = new Backward(grid, claims, chain);
+        Future<?> future = BACKWARD_WALKS.submit(backward);
+        try {
+            sink.step(grid.charAt(rowIndex, columnIndex), rowIndex, columnIndex);
+            if(counters != null) counters.steps++;
+            return follow(grid, Traversal.nextRow(rowIndex, direction), Traversal.nextColumn(columnIndex, direction), direction,
+                    backward, future, letterIndexes, sink, counters, budget);
+        } finally {
+            backward.stopped = true;
+            // Not waiting for a walk which is still running (e.g. still looking for the 'x'), it is cleared up by the next solve
+            if(future.isDone()) {
+                clear(future, grid);
+            } else {
+                pendingWalk = future;
+                pendingGrid = grid;
+            }
+        }
+    }
+
+    // Clearing the claims of an ended (or stopped) walk. If it can't be waited for it may still write to them, so they are dropped.
+    private void clear(Future<?> walk, FlatGrid grid) {
+        if(join(walk)) {
+            for(int i = 0; i < chain.length; i++) claims[grid.index(chain.rows[i], chain.columns[i])] = 0;
+            chain.length = 0;
+            chain.letterCount = 0;
+        } else {
+            claims = new byte[0];
+            chain = new Chain();
+        }
+        pendingWalk = null;
+        pendingGrid = null;
+    }
+
+    // Waiting for the backward walk to end, false if it failed or the wait was interrupted
+    private static boolean join(Future<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    // Traversal.follow until the path enters the backward walk's chain
+    private SolveError follow(FlatGrid grid, int rowIndex, int columnIndex, int direction, Backward backward, Future<?> future,
+                              VisitedCells letterIndexes, PathSink sink, TraversalCounters counters, TraversalBudget budget) {
+        long width = grid.columns();
+        byte[] masks = grid.builtConnectivity();
+        long step = 1;
+        long steps = 0;
+        long crossings = 0;
+        long letters = 0;
+        long duplicateLetters = 0;
+        // Brent's cycle detection as in Traversal.follow, the backward walk never claims a circle
+        long firstState = Traversal.state(rowIndex, columnIndex, direction);
+        long savedState = -1;
+        long savedStep = 0;
+        long power = 1;
+        long sinceSaved = 0;
+        long nextCheck = budget != null ? step : Long.MAX_VALUE;
+
+        try {
+            while(true) {
+                long state = Traversal.state(rowIndex, columnIndex, direction);
+                if(state == savedState) return Traversal.cycle(grid, masks, firstState, step, step + steps - savedStep);
+                if(++sinceSaved == power) {
+                    savedState = state;
+                    savedStep = step + steps;
+                    power <<= 1;
+                    sinceSaved = 0;
+                }
+                if(step + steps >= nextCheck) {
+                    ErrorKind stop = budget.check(step + steps);
+                    if(stop != null) return new SolveError(stop, rowIndex, columnIndex, step + steps);
+                    nextCheck = TraversalBudget.nextCheck(budget, step + steps);
+                }
+
+                // Claims are written by the other thread without synchronization, a claim seen late only means joining later.
+                // The chain holding a claim we saw is read after the walk ended, so it is complete.
+                if((claims[grid.index(rowIndex, columnIndex)] >>> direction & 1) != 0) {
+                    backward.stopped = true;
+                    if(!join(future)) {
+                        // Not waiting any longer, the rest of the path is followed forward instead
+                        return Traversal.follow(grid, rowIndex, columnIndex, direction, step + steps, null, letterIndexes, sink, counters, budget);
+                    }
+
+                    int last = chain.find(rowIndex, columnIndex, direction);
+                    chain.reverse(last);
+                    // Only the step budget can run out here, the time it takes is bounded by the length of the chain
+                    int length = (int) Math.min(last + 1, Math.max(TraversalBudget.remainingSteps(budget, step + steps), 0));
+                    int from = 0;
+                    for(int i = chain.letterCount - 1; i >= 0; i--) {
+                        if(chain.letters[i] > last) continue;
+                        int letter = last - chain.letters[i];
+                        if(letter >= length) break;
+                        sink.steps(chain.characters, from, letter + 1 - from, chain.rows, chain.columns);
+                        from = letter + 1;
+                        int cellRow = chain.rows[letter];
+                        int cellColumn = chain.columns[letter];
+                        if(letterIndexes.add(cellRow * width + cellColumn)) {
+                            sink.letter(chain.characters[letter], cellRow, cellColumn);
+                            letters++;
+                        } else {
+                            duplicateLetters++;
+                        }
+                    }
+                    if(from < length) sink.steps(chain.characters, from, length - from, chain.rows, chain.columns);
+                    steps += length;
+                    if(counters != null) {
+                        for(int i = 0; i < length; i++) if(chain.characters[i] == '+') crossings++;
+                    }
+
+                    if(length <= last) return new SolveError(ErrorKind.BUDGET_EXCEEDED, chain.rows[length], chain.columns[length], step + steps);
+                    return null;
+                }
+
+                char currentChar = grid.charAt(rowIndex, columnIndex);
+                int cellClass = Cells.classOf(currentChar);
+                sink.step(currentChar, rowIndex, columnIndex);
+                steps++;
+                if(cellClass == Cells.END) return null;
+
+                int next = Traversal.decide(grid, masks, rowIndex, columnIndex, cellClass, direction);
+                if(next == Traversal.DEAD_END) return new SolveError(ErrorKind.BROKEN_PATH, rowIndex, columnIndex, step + steps - 1);
+
+                if(cellClass == Cells.CROSSING) {
+                    crossings++;
+                } else if(cellClass == Cells.LETTER) {
+                    // If we came across the same letter twice (letter on the crossing) we won't collect it again
+                    if(letterIndexes.add(rowIndex * width + columnIndex)) {
+                        sink.letter(currentChar, rowIndex, columnIndex);
+                        letters++;
+                    } else {
+                        duplicateLetters++;
+                    }
+                }
+
+                if(next == Traversal.PATH_ENDS) return null;
+                if(next < 0) return new SolveError(Traversal.ERROR_KINDS[-1 - next], rowIndex, columnIndex, step + steps - 1);
+                direction = next;
+
+                rowIndex = Traversal.nextRow(rowIndex, direction);
+                columnIndex = Traversal.nextColumn(columnIndex, direction);
+            }
+        } finally {
+            if(counters != null) {
+                counters.steps += steps;
+                counters.crossings += crossings;
+                counters.letters += letters;
+                counters.duplicateLetters += duplicateLetters;
+            }
+        }
+    }
+
+    // The backward walk's half of the path. It starts at the 'x' and goes against the path, entry i holds a cell, its character
+    // and the direction the forward walk enters it from. Letters holds the entries which are letters, in chain order.
+    private static final class Chain {
+
+        private int[] rows = new int[64];
+        private int[] columns = new int[64];
+        private byte[] directions = new byte[64];
+        private char[] characters = new char[64];
+        private int length;
+        private int[] letters = new int[16];
+        private int letterCount;
+
+        void add(int rowIndex, int columnIndex, int direction, char character) {
+            if(length == rows.length) {
+                rows = Arrays.copyOf(rows, length * 2);
+                columns = Arrays.copyOf(columns, length * 2);
+                directions = Arrays.copyOf(directions, length * 2);
+                characters = Arrays.copyOf(characters, length * 2);
+            }
+            if(Cells.classOf(character) == Cells.LETTER) {
+                if(letterCount == letters.length) letters = Arrays.copyOf(letters, letterCount * 2);
+                letters[letterCount++] = length;
+            }
+            rows[length] = rowIndex;
+            columns[length] = columnIndex;
+            directions[length] = (byte) direction;
+            characters[length] = character;
+            length++;
+        }
+
+        // Position of a claimed (cell, direction) in the chain
+        int find(int rowIndex, int columnIndex, int direction) {
+            for(int i = length - 1; ; i--) {
+                if(rows[i] == rowIndex && columns[i] == columnIndex && directions[i] == direction) return i;
+            }
+        }
+
+        // Putting the cells and characters of entries 0 to last in forward order (the directions and letters stay as they are)
+        void reverse(int last) {
+            for(int i = 0, j = last; i < j; i++, j--) {
+                int row = rows[i];
+                rows[i] = rows[j];
+                rows[j] = row;
+                int column = columns[i];
+                columns[i] = columns[j];
+                columns[j] = column;
+                char character = characters[i];
+                characters[i] = characters[j];
+                characters[j] = character;
+            }
+        }
+    }
+
+    // The backward walk, filling the chain and the claims
+    private static final class Backward implements Runnable {
+
+        private final FlatGrid grid;
+        private final byte[] claims;
+        private final Chain chain;
+        private volatile boolean stopped;
+
+        Backward(FlatGrid grid, byte[] claims, Chain chain) {
+            this.grid = grid;
+            this.claims = claims;
+            this.chain = chain;
+        }
+
+        @Override
+        public void run() {
+            int end = MarkerScan.findOnlyEnd(grid);
+            if(end < 0) return;
+            byte[] masks = grid.builtConnectivity();
+
+            int rowIndex = grid.rowOf(end);
+            int columnIndex = grid.columnOf(end);
+            // The 'x' ends the path whichever direction it is entered from
+            chain.add(rowIndex, columnIndex, -1, 'x');
+            int direction = -1;
+            while(!stopped) {
+                // Looking for the single (cell, direction) from which the forward walk moves into the current cell
+                int previousRow = 0;
+                int previousColumn = 0;
+                int previousDirection = -1;
+                char previousChar = ' ';
+                for(int move = FROM_LEFT; move <= FROM_BELOW; move++) {
+                    if(direction >= 0 && move != direction) continue;
+                    int row = previousRow(rowIndex, move);
+                    int column = previousColumn(columnIndex, move);
+                    char character = grid.charAt(row, column);
+                    int cellClass = Cells.classOf(character);
+                    // The forward walk starts at the '@' and meets the chain right after it, it never passes an 'x'
+                    if(cellClass == Cells.EMPTY || cellClass == Cells.START || cellClass == Cells.END || cellClass == Cells.UNRECOGNIZED) continue;
+
+                    for(int entered = FROM_LEFT; entered <= FROM_BELOW; entered++) {
+                        if(entered == Cells.opposite(move)) continue;
+                        // Lines are passed straight through, crossings always turn
+                        if(cellClass == Cells.CROSSING ? entered == move : cellClass != Cells.LETTER && entered != move) continue;
+                        // The cell before has to be something the path can come from
+                        char before = grid.charAt(previousRow(row, entered), previousColumn(column, entered));
+                        if(before == ' ' || before == 'x') continue;
+                        if(Traversal.decide(grid, masks, row, column, cellClass, entered) != move) continue;
+
+                        // More than one way leads here, which one the path takes is only known by walking forward
+                        if(previousDirection >= 0) return;
+                        previousRow = row;
+                        previousColumn = column;
+                        previousDirection = entered;
+                        previousChar = character;
+                    }
+                }
+                if(previousDirection < 0) return;
+
+                int index = grid.index(previousRow, previousColumn);
+                // Running in a circle, the forward walk never gets here from the '@'
+                if((claims[index] >>> previousDirection & 1) != 0) return;
+                chain.add(previousRow, previousColumn, previousDirection, previousChar);
+                claims[index] |= (byte) (1 << previousDirection);
+
+                rowIndex = previousRow;
+                columnIndex = previousColumn;
+                direction = previousDirection;
+            }
+        }
+
+        // Getting the row of the cell the forward walk moved in the direction from
+        private static int previousRow(int rowIndex, int direction) {
+            return direction == FROM_ABOVE ? rowIndex - 1 : direction == FROM_BELOW ? rowIndex + 1 : rowIndex;
+        }
+
+        private static int previousColumn(int columnIndex, int direction) {
+            return direction == FROM_LEFT ? columnIndex - 1 : direction == FROM_RIGHT ? columnIndex + 1 : columnIndex;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package main;
+
+import java.util.Arrays;
+
+// Precomputed classification of map characters and of the moves the path can make from each kind of cell,
+// so that every decision while following the path is an array lookup
+final class Cells {
+
+    // Previous directions constants, a move to the right means we come to the next cell from the left and so on
+    static final int FROM_LEFT = 0;
+    static final int FROM_RIGHT = 1;
+    static final int FROM_ABOVE = 2;
+    static final int FROM_BELOW = 3;
+
+    // Cell classes
+    static final int EMPTY = 0;
+    static final int START = 1;
+    static final int END = 2;
+    static final int HORIZONTAL = 3;
+    static final int VERTICAL = 4;
+    static final int CROSSING = 5;
+    static final int LETTER = 6;
+    static final int UNRECOGNIZED = 7;
+
+    private static final int HORIZONTAL_MOVES = 1 << FROM_LEFT | 1 << FROM_RIGHT;
+    private static final int VERTICAL_MOVES = 1 << FROM_ABOVE | 1 << FROM_BELOW;
+
+    private static final byte[] CLASSES = new byte[256];
+    // Directions (as bit masks) a cell of the given class can be entered from when it is a turn or the next step of a letter,
+    // i.e. a '-' doesn't continue a vertical path and a '|' doesn't continue a horizontal one
+    private static final byte[] ENTRIES = new byte[8];
+    // Allowed outgoing directions for each (cell class, previous direction), straight ahead and/or turning
+    private static final byte[] MOVES = new byte[8 * 4];
+    private static final int[] OPPOSITES = {FROM_RIGHT, FROM_LEFT, FROM_BELOW, FROM_ABOVE};
+
+    static {
+        Arrays.fill(CLASSES, (byte) UNRECOGNIZED);
+        CLASSES[' '] = EMPTY;
+        CLASSES['@'] = START;
+        CLASSES['x'] = END;
+        CLASSES['-'] = HORIZONTAL;
+        CLASSES['|'] = VERTICAL;
+        CLASSES['+'] = CROSSING;
+        for(char letter = 'A'; letter <= 'Z'; letter++) CLASSES[letter] = LETTER;
+
+        ENTRIES[EMPTY] = 0;
+        ENTRIES[HORIZONTAL] = HORIZONTAL_MOVES;
+        ENTRIES[VERTICAL] = VERTICAL_MOVES;
+        ENTRIES[START] = ENTRIES[END] = ENTRIES[CROSSING] = ENTRIES[LETTER] = ENTRIES[UNRECOGNIZED] = HORIZONTAL_MOVES | VERTICAL_MOVES;
+
+        for(int direction = FROM_LEFT; direction <= FROM_BELOW; direction++) {
+            int straight = 1 << direction;
+            int turns = turns(direction);
+            // Lines (also when crossed by the other kind of line) are always passed straight through
+            MOVES[HORIZONTAL << 2 | direction] = (byte) straight;
+            MOVES[VERTICAL << 2 | direction] = (byte) straight;
+            MOVES[CROSSING << 2 | direction] = (byte) turns;
+            // Letters are passed straight through if possible, otherwise they are turns
+            MOVES[LETTER << 2 | direction] = (byte) (straight | turns);
+        }
+    }
+
+    private Cells() {
+    }
+
+    static int classOf(char character) {
+        return character < CLASSES.length ? CLASSES[character] : UNRECOGNIZED;
+    }
+
+    // Bit of the direction if the character can be entered coming from it, zero otherwise
+    static int entry(char character, int direction) {
+        return ENTRIES[classOf(character)] & 1 << direction;
+    }
+
+    // Connectivity of a cell from its four neighbours: the low nibble has the bits of the directions of the non empty neighbours,
+    // the high nibble the bits of the directions whose neighbour can continue the path in that direction (see entry)
+    static int connectivity(char above, char right, char below, char left) {
+        int nonEmpty = (right != ' ' ? 1 << FROM_LEFT : 0) | (left != ' ' ? 1 << FROM_RIGHT : 0)
+                | (below != ' ' ? 1 << FROM_ABOVE : 0) | (above != ' ' ? 1 << FROM_BELOW : 0);
+        int entries = entry(right, FROM_LEFT) | entry(left, FROM_RIGHT) | entry(below, FROM_ABOVE) | entry(above, FROM_BELOW);
+        return nonEmpty | entries << 4;
+    }
+
+    static int moves(int cellClass, int direction) {
+        return MOVES[cellClass << 2 | direction];
+    }
+
+    // The two directions perpendicular to the given one
+    static int turns(int direction) {
+        return isHorizontal(direction) ? VERTICAL_MOVES : HORIZONTAL_MOVES;
+    }
+
+    static boolean isHorizontal(int direction) {
+        return direction == FROM_LEFT || direction == FROM_RIGHT;
+    }
+
+    static int opposite(int direction) {
+        return OPPOSITES[direction];
+    }
+}
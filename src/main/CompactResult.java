@@ -0,0 +1,167 @@
+package main;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Compact form of the Letters/Path result: the path is kept run-length encoded (it is mostly long runs of '-' and '|'),
+// letters and their positions as primitive arrays. The classic strings are only built when asked for.
+public final class CompactResult {
+
+    private final char[] runCharacters;
+    private final int[] runLengths;
+    private final int runCount;
+    private final char[] letters;
+    private final int[] letterRows;
+    private final int[] letterColumns;
+    private final int letterCount;
+    private final long pathLength;
+
+    private volatile String path;
+
+    private CompactResult(char[] runCharacters, int[] runLengths, int runCount, char[] letters, int[] letterRows, int[] letterColumns, int letterCount, long pathLength) {
+        this.runCharacters = runCharacters;
+        this.runLengths = runLengths;
+        this.runCount = runCount;
+        this.letters = letters;
+        this.letterRows = letterRows;
+        this.letterColumns = letterColumns;
+        this.letterCount = letterCount;
+        this.pathLength = pathLength;
+    }
+
+    public String letters() {
+        return new String(letters, 0, letterCount);
+    }
+
+    // Expanding the runs into the classic Path string, once
+    public String path() {
+        String path = this.path;
+        if(path == null) {
+            if(pathLength > Integer.MAX_VALUE - 8) throw new IllegalStateException("Path is too long to be expanded into a String");
+            StringBuilder builder = new StringBuilder((int) pathLength);
+            for(int i = 0; i < runCount; i++) {
+                for(int j = 0; j < runLengths[i]; j++) builder.append(runCharacters[i]);
+            }
+            path = builder.toString();
+            this.path = path;
+        }
+        return path;
+    }
+
+    // Same as the result of FollowPath.start()
+    public Map<String, String> toMap() {
+        Map<String, String> result = new HashMap<>();
+        result.put("Letters", letters());
+        result.put("Path", path());
+        return result;
+    }
+
+    public long pathLength() {
+        return pathLength;
+    }
+
+    public int runCount() {
+        return runCount;
+    }
+
+    public char runCharacter(int runIndex) {
+        return runCharacters[runIndex];
+    }
+
+    public int runLength(int runIndex) {
+        return runLengths[runIndex];
+    }
+
+    public int letterCount() {
+        return letterCount;
+    }
+
+    public int letterRow(int letterIndex) {
+        return letterRows[letterIndex];
+    }
+
+    public int letterColumn(int letterIndex) {
+        return letterColumns[letterIndex];
+    }
+
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeInt(runCount);
+        for(int i = 0; i < runCount; i++) {
+            output.writeChar(runCharacters[i]);
+            output.writeInt(runLengths[i]);
+        }
+        output.writeInt(letterCount);
+        for(int i = 0; i < letterCount; i++) {
+            output.writeChar(letters[i]);
+            output.writeInt(letterRows[i]);
+            output.writeInt(letterColumns[i]);
+        }
+    }
+
+    public static CompactResult readFrom(DataInput input) throws IOException {
+        Builder builder = new Builder();
+        int runCount = input.readInt();
+        for(int i = 0; i < runCount; i++) {
+            char character = input.readChar();
+            builder.run(character, input.readInt());
+        }
+        int letterCount = input.readInt();
+        for(int i = 0; i < letterCount; i++) {
+            char letter = input.readChar();
+            builder.letter(letter, input.readInt(), input.readInt());
+        }
+        return builder.build();
+    }
+
+    // Collecting the result while the path is being followed
+    static final class Builder implements PathSink {
+
+        private char[] runCharacters = new char[16];
+        private int[] runLengths = new int[16];
+        private int runCount;
+        private char[] letters = new char[16];
+        private int[] letterRows = new int[16];
+        private int[] letterColumns = new int[16];
+        private int letterCount;
+        private long pathLength;
+
+        @Override
+        public void step(char character, int rowIndex, int columnIndex) {
+            run(character, 1);
+        }
+
+        private void run(char character, int length) {
+            pathLength += length;
+            if(runCount > 0 && runCharacters[runCount - 1] == character && runLengths[runCount - 1] <= Integer.MAX_VALUE - length) {
+                runLengths[runCount - 1] += length;
+                return;
+            }
+            if(runCount == runCharacters.length) {
+                runCharacters = Arrays.copyOf(runCharacters, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runCharacters[runCount] = character;
+            runLengths[runCount++] = length;
+        }
+
+        @Override
+        public void letter(char letter, int rowIndex, int columnIndex) {
+            if(letterCount == letters.length) {
+                letters = Arrays.copyOf(letters, letterCount * 2);
+                letterRows = Arrays.copyOf(letterRows, letterCount * 2);
+                letterColumns = Arrays.copyOf(letterColumns, letterCount * 2);
+            }
+            letters[letterCount] = letter;
+            letterRows[letterCount] = rowIndex;
+            letterColumns[letterCount++] = columnIndex;
+        }
+
+        CompactResult build() {
+            return new CompactResult(runCharacters, runLengths, runCount, letters, letterRows, letterColumns, letterCount, pathLength);
+        }
+    }
+}
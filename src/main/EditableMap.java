@@ -0,0 +1,169 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static main.Cells.FROM_ABOVE;
+import static main.Cells.FROM_BELOW;
+import static main.Cells.FROM_LEFT;
+import static main.Cells.FROM_RIGHT;
+
+// Mutable map which is solved incrementally: the last traversal remembers the step at which it first stood on each cell,
+// so after a few cells are changed only the part of the path from the earliest step that could see a change is walked again.
+// The Letters, Path and visited letters before that step are reused.
+public final class EditableMap {
+
+    private final FlatGrid grid;
+    private final long width;
+    // Step at which the last traversal first stood on each cell of the padded grid, -1 if it never did
+    private final int[] firstSteps;
+    private final Recorder recorder = new Recorder();
+    // Cell of '@' in the padded grid, the first step is seen there even if the path is rejected before it is recorded
+    private int startCell = -1;
+
+    private boolean solved;
+    // Editing '@' or 'x' can change the starting position and whether the map is valid at all, the whole path is walked again
+    private boolean startChanged;
+    private int earliestChangedStep = Integer.MAX_VALUE;
+    private int lastResumedStep = -1;
+
+    public EditableMap(char[][] map) {
+        this.grid = FlatGrid.of(map);
+        this.width = grid.columns();
+        this.firstSteps = new int[grid.size()];
+        Arrays.fill(firstSteps, -1);
+    }
+
+    public char get(int rowIndex, int columnIndex) {
+        return grid.charAt(rowIndex, columnIndex);
+    }
+
+    public void set(int rowIndex, int columnIndex, char character) {
+        char previous = grid.charAt(rowIndex, columnIndex);
+        grid.set(rowIndex, columnIndex, character);
+        if(previous == character) return;
+
+        if(previous == '@' || previous == 'x' || character == '@' || character == 'x') {
+            startChanged = true;
+            return;
+        }
+        // A step sees its own cell and the four around it
+        int index = grid.index(rowIndex, columnIndex);
+        int stride = grid.stride();
+        for(int neighbour : new int[]{index, index - 1, index + 1, index - stride, index + stride}) {
+            int firstStep = firstSteps[neighbour];
+            if(firstStep >= 0) earliestChangedStep = Math.min(earliestChangedStep, firstStep);
+        }
+    }
+
+    // Same result (or error) as FollowPath.start() on the current map
+    public Map<String, String> solve() {
+        return trySolve().orThrow();
+    }
+
+    // Same result as FollowPath.tryStart() on the current map
+    public SolveResult trySolve() {
+        if(!solved || startChanged) {
+            solveFromStart();
+        } else if(earliestChangedStep == 0) {
+            solveFromStart();
+        } else if(earliestChangedStep != Integer.MAX_VALUE) {
+            resume(earliestChangedStep);
+        } else {
+            // Nothing the last traversal looked at has changed
+            lastResumedStep = -1;
+        }
+        solved = true;
+        startChanged = false;
+        earliestChangedStep = Integer.MAX_VALUE;
+
+        if(recorder.error != null) return SolveResult.failure(recorder.error);
+        return SolveResult.success(recorder.letters.toString(), recorder.path.toString());
+    }
+
+    // Step from which the last solve() walked the path, 0 for the whole path and -1 if nothing had to be walked
+    public int lastResumedStep() {
+        return lastResumedStep;
+    }
+
+    private void solveFromStart() {
+        recorder.truncate(0);
+        lastResumedStep = 0;
+        FollowPath followPath = new FollowPath();
+        followPath.setGrid(grid);
+        int[] startPosition = new int[2];
+        recorder.error = followPath.findStartingPosition(startPosition);
+        if(recorder.error != null) return;
+        startCell = grid.index(startPosition[0], startPosition[1]);
+        firstSteps[startCell] = 0;
+        recorder.error = Traversal.walk(grid, startPosition[0], startPosition[1], null, recorder.visitedLetters, recorder, null, null);
+    }
+
+    private void resume(int step) {
+        recorder.truncate(step);
+        lastResumedStep = step;
+
+        int previousCell = recorder.stepCells[step - 1];
+        int cell = recorder.stepCells[step];
+        int delta = cell - previousCell;
+        int direction = delta == 1 ? FROM_LEFT : delta == -1 ? FROM_RIGHT : delta > 0 ? FROM_ABOVE : FROM_BELOW;
+
+        recorder.error = Traversal.follow(grid, grid.rowOf(cell), grid.columnOf(cell), direction, step, null, recorder.visitedLetters, recorder, null, null);
+        // The circle can start before the step we resumed from, which only a walk from the start finds
+        if(recorder.error != null && recorder.error.kind() == ErrorKind.CYCLE) solveFromStart();
+    }
+
+    // Recording the traversal, including the cell of every step and the step of every collected letter
+    private final class Recorder implements PathSink {
+
+        private final StringBuilder path = new StringBuilder();
+        private final StringBuilder letters = new StringBuilder();
+        private final VisitedCells visitedLetters = new VisitedCells();
+        private int[] stepCells = new int[64];
+        private int stepCount;
+        private int[] letterSteps = new int[16];
+        private long[] letterIndexes = new long[16];
+        private SolveError error;
+
+        @Override
+        public void step(char character, int rowIndex, int columnIndex) {
+            int cell = grid.index(rowIndex, columnIndex);
+            if(stepCount == stepCells.length) stepCells = Arrays.copyOf(stepCells, stepCount * 2);
+            stepCells[stepCount] = cell;
+            if(firstSteps[cell] < 0) firstSteps[cell] = stepCount;
+            stepCount++;
+            path.append(character);
+        }
+
+        @Override
+        public void letter(char letter, int rowIndex, int columnIndex) {
+            int letterCount = letters.length();
+            if(letterCount == letterSteps.length) {
+                letterSteps = Arrays.copyOf(letterSteps, letterCount * 2);
+                letterIndexes = Arrays.copyOf(letterIndexes, letterCount * 2);
+            }
+            letterSteps[letterCount] = stepCount - 1;
+            letterIndexes[letterCount] = rowIndex * width + columnIndex;
+            letters.append(letter);
+        }
+
+        // Forgetting everything the traversal did from the step on, the step itself is recorded again when the path is followed from it
+        private void truncate(int step) {
+            for(int i = step; i < stepCount; i++) {
+                if(firstSteps[stepCells[i]] == i) firstSteps[stepCells[i]] = -1;
+            }
+            if(step == 0 && startCell >= 0) {
+                firstSteps[startCell] = -1;
+                startCell = -1;
+            }
+            int letterCount = letters.length();
+            while(letterCount > 0 && letterSteps[letterCount - 1] >= step) {
+                visitedLetters.remove(letterIndexes[--letterCount]);
+            }
+            letters.setLength(letterCount);
+            stepCount = step;
+            path.setLength(step);
+            error = null;
+        }
+    }
+}
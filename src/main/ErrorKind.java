@@ -0,0 +1,32 @@
+package main;
+
+// Reasons a map is rejected, with the message the throwing API has always used for them
+public enum ErrorKind {
+
+    TWO_STARTING_POSITIONS("Invalid input, two or more starting positions!"),
+    MISSING_STARTING_POSITION("Invalid input, missing starting position!"),
+    MISSING_END_POSITION("Invalid input, missing end position!"),
+    MULTIPLE_STARTING_PATHS("Invalid input, multiple starting paths!"),
+    BROKEN_PATH("Invalid input, broken path!"),
+    FORK("Invalid input, fork in the path!"),
+    // A fork right after a letter on a horizontal path, which has always been reported without the exclamation mark
+    FORK_AFTER_HORIZONTAL_LETTER("Invalid input, fork in the path"),
+    FAKE_TURN("Invalid input, fake turn!"),
+    UNRECOGNIZED_CHARACTER("Invalid input, unrecognized character!"),
+    // The path runs in a circle and never reaches an end, reported at the first cell of the circle
+    CYCLE("Invalid input, the path loops forever!"),
+    // The traversal was stopped by its step or time budget
+    BUDGET_EXCEEDED("Step or time budget exceeded!"),
+    // The caller of an asynchronous solve cancelled it
+    CANCELLED("Traversal cancelled!");
+
+    private final String message;
+
+    ErrorKind(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+}
@@ -0,0 +1,199 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Grid packed into a single row-major byte array with a fixed stride.
+// The map is surrounded by a border of empty spaces, so reading the neighbours of any cell on the path
+// (even of a cell just outside the map) never needs a bounds check.
+final class FlatGrid implements Grid {
+
+    static final int BORDER = 2;
+    static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] cells;
+    private final int rows;
+    private final int columns;
+    private final int stride;
+    // Cells.connectivity of every cell which can be stepped on, built on demand and kept up to date by set()
+    private volatile byte[] connectivity;
+
+    private FlatGrid(int rows, int columns) {
+        // A single array can't hold more, larger maps have to be memory mapped (see MappedGrid) or tiled (see TiledGrid)
+        long size = ((long) rows + 2 * BORDER) * ((long) columns + 2 * BORDER);
+        if(size > MAX_SIZE) {
+            throw new IllegalArgumentException("Map of " + rows + " x " + columns + " cells is too large for a flat grid, at most " + MAX_SIZE + " cells with the border");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.stride = columns + 2 * BORDER;
+        this.cells = new byte[(int) size];
+        Arrays.fill(cells, (byte) ' ');
+    }
+
+    // Packing a (possibly jagged) map once, shorter rows are padded with empty spaces
+    static FlatGrid of(char[][] map) {
+        int columns = 0;
+        for(char[] row : map) columns = Math.max(columns, row.length);
+
+        FlatGrid grid = new FlatGrid(map.length, columns);
+        for(int i = 0; i < map.length; i++) {
+            int offset = grid.index(i, 0);
+            for(int j = 0; j < map[i].length; j++) {
+                grid.cells[offset + j] = toByte(map[i][j]);
+            }
+        }
+        return grid;
+    }
+
+    // Unpacking a sparse grid, e.g. for the connectivity masks (see FollowPath.setConnectivityIndex)
+    static FlatGrid of(SparseGrid sparseGrid) {
+        FlatGrid grid = new FlatGrid(sparseGrid.rows(), sparseGrid.columns());
+        for(int i = 0; i < sparseGrid.rows(); i++) {
+            int offset = grid.index(i, 0);
+            for(int cell = sparseGrid.rowStart(i); cell < sparseGrid.rowStart(i + 1); cell++) {
+                grid.cells[offset + sparseGrid.columnOf(cell)] = sparseGrid.cell(cell);
+            }
+        }
+        return grid;
+    }
+
+    // Parsing ASCII map lines ("\n" or "\r\n" separated) straight into the grid, without building strings or a char[][] first
+    static FlatGrid parse(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int rows = 0;
+        int columns = 0;
+        for(int lineStart = offset; lineStart < end; rows++) {
+            int lineEnd = lineEnd(bytes, lineStart, end);
+            columns = Math.max(columns, lineEnd - lineStart - (lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? 1 : 0));
+            lineStart = lineEnd + 1;
+        }
+
+        FlatGrid grid = new FlatGrid(rows, columns);
+        for(int i = 0, lineStart = offset; i < rows; i++) {
+            int lineEnd = lineEnd(bytes, lineStart, end);
+            int rowLength = lineEnd - lineStart - (lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? 1 : 0);
+            System.arraycopy(bytes, lineStart, grid.cells, grid.index(i, 0), rowLength);
+            lineStart = lineEnd + 1;
+        }
+        return grid;
+    }
+
+    static int lineEnd(byte[] bytes, int lineStart, int end) {
+        int i = lineStart;
+        while(i < end && bytes[i] != '\n') i++;
+        return i;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    // All rows are padded to the width of the widest row
+    @Override
+    public int rowLength(int rowIndex) {
+        return columns;
+    }
+
+    @Override
+    public char charAt(int rowIndex, int columnIndex) {
+        return (char) (cells[index(rowIndex, columnIndex)] & 0xFF);
+    }
+
+    void set(int rowIndex, int columnIndex, char character) {
+        if(rowIndex < 0 || rowIndex >= rows || columnIndex < 0 || columnIndex >= columns) {
+            throw new IndexOutOfBoundsException("Cell [" + rowIndex + ", " + columnIndex + "] is outside of the map");
+        }
+        int index = index(rowIndex, columnIndex);
+        cells[index] = toByte(character);
+        byte[] masks = connectivity;
+        if(masks != null) {
+            for(int neighbour : new int[]{index - 1, index + 1, index - stride, index + stride}) masks[neighbour] = connectivity(neighbour);
+        }
+    }
+
+    // Building the connectivity masks once, in parallel stripes of rows for large grids.
+    // All cells of the map and of the first ring of the border get a mask, as the path can end one step outside of the map.
+    byte[] connectivity() {
+        byte[] masks = connectivity;
+        if(masks == null) {
+            byte[] built = new byte[cells.length];
+            IntStream paddedRows = IntStream.range(1, rows + 2 * BORDER - 1);
+            if(cells.length >= MarkerScan.PARALLEL_THRESHOLD) paddedRows = paddedRows.parallel();
+            paddedRows.forEach(row -> {
+                for(int i = row * stride + 1; i < (row + 1) * stride - 1; i++) built[i] = connectivity(i);
+            });
+            connectivity = masks = built;
+        }
+        return masks;
+    }
+
+    // The masks if they were built, null otherwise
+    byte[] builtConnectivity() {
+        return connectivity;
+    }
+
+    private byte connectivity(int index) {
+        return (byte) Cells.connectivity((char) (cells[index - stride] & 0xFF), (char) (cells[index + 1] & 0xFF),
+                (char) (cells[index + stride] & 0xFF), (char) (cells[index - 1] & 0xFF));
+    }
+
+    // Maps are ASCII, anything that does not fit into a byte is kept as some unrecognized character
+    static byte toByte(char character) {
+        return character <= 0xFF ? (byte) character : (byte) 0x1A;
+    }
+
+    // Hashing the cells eight at a time
+    GridKey key() {
+        GridKey.Hasher hasher = new GridKey.Hasher();
+        int i = 0;
+        for(; i + Long.BYTES <= cells.length; i += Long.BYTES) {
+            hasher.add((long) LONGS.get(cells, i));
+        }
+        for(; i < cells.length; i++) {
+            hasher.add(cells[i]);
+        }
+        return hasher.key(rows, columns);
+    }
+
+    // Eight cells starting at the index, the cell at the index in the lowest byte
+    long word(int index) {
+        return (long) LONGS.get(cells, index);
+    }
+
+    byte cell(int index) {
+        return cells[index];
+    }
+
+    // Index of a cell in the padded grid, also valid for cells in the border around the map (the constructor keeps them all in int range)
+    int index(int rowIndex, int columnIndex) {
+        return (rowIndex + BORDER) * stride + columnIndex + BORDER;
+    }
+
+    int rowOf(int index) {
+        return index / stride - BORDER;
+    }
+
+    int columnOf(int index) {
+        return index % stride - BORDER;
+    }
+
+    int stride() {
+        return stride;
+    }
+
+    int size() {
+        return cells.length;
+    }
+}
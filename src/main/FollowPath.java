@@ -1,63 +1,274 @@
 package main;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+
+import static main.Cells.FROM_ABOVE;
+import static main.Cells.FROM_BELOW;
+import static main.Cells.FROM_LEFT;
+import static main.Cells.FROM_RIGHT;
 
 public class FollowPath {
 
-    private char[][] map;
+    private Grid grid;
+    private ResultCache cache;
+    private TraversalListener listener;
+    private boolean segmentIndexEnabled;
+    private boolean connectivityIndexEnabled;
+    private boolean bidirectional;
+    private long stepBudget;
+    private Duration timeBudget;
+    // Built for the current grid on first use
+    private SegmentIndex segments;
+    // Kept between solves so that its buffers are reused, created on first use
+    private BidirectionalTraversal bidirectionalTraversal;
+
+    // The map is packed into a grid once (see Grids.of, a flat grid unless it is huge and mostly empty), later changes to the array are not seen
+    public void setMap(char[][] map) {
+        this.grid = Grids.of(map);
+        this.segments = null;
+    }
+
+    // Following the path directly on a grid, e.g. a map file loaded with MappedGrid.open
+    public void setGrid(Grid grid) {
+        this.grid = grid;
+        this.segments = null;
+    }
 
-    // Previous directions constants
-    private static final int FROM_LEFT = 0;
-    private static final int FROM_RIGHT = 1;
-    private static final int FROM_ABOVE = 2;
-    private static final int FROM_BELOW = 3;
+    // Indexing the straight runs of the map (one pass over all cells) so that the traversal can jump over them.
+    // Worth it for corridor-heavy maps which are solved more than once, e.g. in multi-route mode.
+    public void setSegmentIndex(boolean enabled) {
+        this.segmentIndexEnabled = enabled;
+    }
 
-    public void setMap(char[][] map) {
-        this.map = map;
+    // Building the connectivity mask of every cell (in parallel for large maps) before the first solve.
+    // The masks are kept with the grid, so every later solve of the map answers its neighbour checks with a single lookup.
+    // They need a flat grid, a small sparse one is unpacked into one first. Huge sparse, memory mapped and tiled grids are
+    // solved without them.
+    public void setConnectivityIndex(boolean enabled) {
+        this.connectivityIndexEnabled = enabled;
+    }
+
+    // Following the path from both ends at once, on the calling thread and a pooled one (see BidirectionalTraversal).
+    // Only worth it for very long paths on more than one core, the segment index is not used in this mode.
+    // Results are the same as without it.
+    // Like the connectivity index it needs a flat grid, other grids are followed from the start only.
+    public void setBidirectional(boolean enabled) {
+        this.bidirectional = enabled;
+    }
+
+    // Stopping a traversal at the step after the given number of steps of the path, zero for no limit.
+    // Stopped traversals end with a BUDGET_EXCEEDED error, which is not cached.
+    public void setStepBudget(long maxSteps) {
+        this.stepBudget = maxSteps;
+    }
+
+    // Stopping a traversal which takes longer than the given time (counted from the end of the start scan), null for no limit
+    public void setTimeBudget(Duration maxTime) {
+        this.timeBudget = maxTime;
+    }
+
+    // A new budget for each traversal, as the time budget starts with it
+    private TraversalBudget budget() {
+        return TraversalBudget.of(stepBudget, timeBudget);
+    }
+
+    // The current grid as a flat grid, unpacking a sparse one (once, it replaces the sparse grid) unless it is too large for
+    // that, see Grids.isUnpackable. Null for other grids, which are then walked without the flat grid modes.
+    private FlatGrid flatGrid() {
+        if(grid instanceof SparseGrid sparseGrid && Grids.isUnpackable(sparseGrid)) {
+            grid = FlatGrid.of(sparseGrid);
+            segments = null;
+        }
+        return grid instanceof FlatGrid flatGrid ? flatGrid : null;
+    }
+
+    // Building the enabled indexes of the current grid, returning the segment index if there is one
+    private SegmentIndex prepare() {
+        if(connectivityIndexEnabled) {
+            FlatGrid flatGrid = flatGrid();
+            if(flatGrid != null) flatGrid.connectivity();
+        }
+        if(!segmentIndexEnabled) return null;
+        if(segments == null) segments = SegmentIndex.build(grid);
+        return segments;
+    }
+
+    // Results of start() are looked up in (and added to) the cache, null turns caching off
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    // The listener gets the statistics of every start() call, null turns it off
+    public void setListener(TraversalListener listener) {
+        this.listener = listener;
     }
 
     public int[] getStartingPosition() {
-        List<int[]> startPositions = new ArrayList<>();
-        List<int[]> endPositions = new ArrayList<>();
+        int[] startPosition = new int[2];
+        SolveError error = findStartingPosition(startPosition);
+        if(error != null) throw error.toError();
+        return startPosition;
+    }
+
+    SolveError findStartingPosition(int[] startPosition) {
+        return findStartingPosition(grid, startPosition);
+    }
+
+    // Filling in the position of '@', or returning why the map has no single start and an end
+    static SolveError findStartingPosition(Grid grid, int[] startPosition) {
+        if(grid instanceof FlatGrid flatGrid) return MarkerScan.findStartingPosition(flatGrid, startPosition);
+        if(grid instanceof SparseGrid sparseGrid) return MarkerScan.findStartingPosition(sparseGrid, startPosition);
+        if(grid instanceof TiledGrid tiledGrid) return MarkerScan.findStartingPosition(tiledGrid, startPosition);
+
+        boolean startFound = false;
+        boolean endFound = false;
 
         //iterating through the map - O(n^2) time complexity
-        for(int i = 0; i < map.length; i++) {
-            for(int j = 0; j < map[i].length; j++) {
-                if(map[i][j] == '@') {
-                    if(!startPositions.isEmpty()) {
-                        throw new Error("Invalid input, two or more starting positions!");
+        for(int i = 0; i < grid.rows(); i++) {
+            for(int j = 0; j < grid.rowLength(i); j++) {
+                char currentChar = grid.charAt(i, j);
+                if(currentChar == '@') {
+                    if(startFound) {
+                        return new SolveError(ErrorKind.TWO_STARTING_POSITIONS, i, j, -1);
                     }
-                    startPositions.add(new int[]{i, j});
+                    startPosition[0] = i;
+                    startPosition[1] = j;
+                    startFound = true;
                 }
-                if(map[i][j] == 'x') {
-                    endPositions.add(new int[]{i, j});
+                if(currentChar == 'x') {
+                    endFound = true;
                 }
             }
         }
 
-        if(startPositions.isEmpty()) throw  new Error("Invalid input, missing starting position!");
-        if(endPositions.isEmpty()) throw  new Error("Invalid input, missing end position!");
-        return startPositions.get(0);
+        if(!startFound) return new SolveError(ErrorKind.MISSING_STARTING_POSITION, -1, -1, -1);
+        if(!endFound) return new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1);
+        return null;
     }
 
     // Starting point of the application
     public Map<String, String> start() {
-        List<Character> letters = new ArrayList<>();
-        List<Character> path = new ArrayList<>();
-        // Initializing this list to have a track of letters at specific index, to not collect the same letter twice
-        List<int[]> letterIndexes = new ArrayList<>();
+        return tryStart().orThrow();
+    }
+
+    // Same as start(), but an invalid map is returned as the error instead of thrown
+    public SolveResult tryStart() {
+        return cache != null ? cache.get(grid, this) : solve();
+    }
+
+    SolveResult solve() {
+        StringBuilder letters = new StringBuilder();
+        StringBuilder path = new StringBuilder();
+
+        SolveError error = tryStart(PathSink.of(letters, path));
+
+        return SolveResult.of(letters, path, error);
+    }
+
+    // Opt-in multi-route mode: every '@' starts its own route, and the routes are followed concurrently over the same grid.
+    // Results are keyed by the starting position in row-major order. A route running into another route's '@' is rejected
+    // like any unrecognized character, and without any 'x' on the map every route is rejected with a missing end position.
+    public Map<Position, SolveResult> startAllRoutes() {
+        MarkerScan.StartMarkers markers;
+        if(grid instanceof FlatGrid flatGrid) markers = MarkerScan.findAllStartingPositions(flatGrid);
+        else if(grid instanceof SparseGrid sparseGrid) markers = MarkerScan.findAllStartingPositions(sparseGrid);
+        else if(grid instanceof TiledGrid tiledGrid) markers = MarkerScan.findAllStartingPositions(tiledGrid);
+        else markers = findAllStartingPositions();
+
+        SegmentIndex segments = markers.end() ? prepare() : null;
+        List<SolveResult> results = markers.starts().parallelStream()
+                .map(start -> markers.end() ? followRoute(start, segments) : SolveResult.failure(new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1)))
+                .toList();
+
+        Map<Position, SolveResult> routes = new LinkedHashMap<>();
+        for(int i = 0; i < results.size(); i++) {
+            routes.put(markers.starts().get(i), results.get(i));
+        }
+        return routes;
+    }
+
+    private MarkerScan.StartMarkers findAllStartingPositions() {
+        List<Position> starts = new ArrayList<>();
+        boolean end = false;
+        for(int i = 0; i < grid.rows(); i++) {
+            for(int j = 0; j < grid.rowLength(i); j++) {
+                char currentChar = grid.charAt(i, j);
+                if(currentChar == '@') starts.add(new Position(i, j));
+                if(currentChar == 'x') end = true;
+            }
+        }
+        return new MarkerScan.StartMarkers(starts, end);
+    }
+
+    private SolveResult followRoute(Position start, SegmentIndex segments) {
+        StringBuilder letters = new StringBuilder();
+        StringBuilder path = new StringBuilder();
+
+        SolveError error = Traversal.walk(grid, start.row(), start.column(), segments, new VisitedCells(), PathSink.of(letters, path), null, budget());
+
+        return SolveResult.of(letters, path, error);
+    }
 
-        int[] startPosition = getStartingPosition();
+    // Same result as start(), kept run-length encoded until the strings are needed
+    public CompactResult startCompact() {
+        CompactResult.Builder builder = new CompactResult.Builder();
+        start(builder);
+        return builder.build();
+    }
+
+    // Emitting Letters and Path to the sink as the path is followed
+    public void start(PathSink sink) {
+        SolveError error = tryStart(sink);
+        if(error != null) throw error.toError();
+    }
 
-        makeStep(startPosition, letters, path, letterIndexes);
+    // Same as start(sink), returning the error if the map is invalid and null if the path was followed to the end
+    public SolveError tryStart(PathSink sink) {
+        TraversalEvent event = new TraversalEvent();
+        if(listener == null && !event.isEnabled()) {
+            int[] startPosition = new int[2];
+            SolveError error = findStartingPosition(startPosition);
+            return error != null ? error : walk(startPosition, sink, null);
+        }
+        return startInstrumented(sink, event);
+    }
 
-        Map<String, String> result = new HashMap<>();
-        result.put("Letters", letters.stream().map(Object::toString).reduce("", String::concat));
-        result.put("Path", path.stream().map(Object::toString).reduce("", String::concat));
+    private SolveError walk(int[] startPosition, PathSink sink, TraversalCounters counters) {
+        FlatGrid flatGrid = bidirectional ? flatGrid() : null;
+        if(flatGrid != null) {
+            if(connectivityIndexEnabled) flatGrid.connectivity();
+            if(bidirectionalTraversal == null) bidirectionalTraversal = new BidirectionalTraversal();
+            return bidirectionalTraversal.walk(flatGrid, startPosition[0], startPosition[1], new VisitedCells(), sink, counters, budget());
+        }
+        return Traversal.walk(grid, startPosition[0], startPosition[1], prepare(), new VisitedCells(), sink, counters, budget());
+    }
 
-        return result;
+    private SolveError startInstrumented(PathSink sink, TraversalEvent event) {
+        TraversalCounters counters = new TraversalCounters();
+        event.begin();
+        long startTime = System.nanoTime();
+        int[] startPosition = new int[2];
+        SolveError error = findStartingPosition(startPosition);
+        long scanEndTime = System.nanoTime();
+        if(error == null) error = walk(startPosition, sink, counters);
+        long endTime = System.nanoTime();
+
+        ErrorKind errorKind = error != null ? error.kind() : null;
+        TraversalStats stats = new TraversalStats(counters.steps, counters.crossings, counters.letters, counters.duplicateLetters,
+                scanEndTime - startTime, endTime - scanEndTime, errorKind);
+        if(listener != null) listener.onTraversal(stats);
+        if(event.shouldCommit()) {
+            event.steps = stats.steps();
+            event.crossings = stats.crossings();
+            event.letters = stats.letters();
+            event.duplicateLetters = stats.duplicateLetters();
+            event.startScanNanos = stats.startScanNanos();
+            event.traversalNanos = stats.traversalNanos();
+            event.error = errorKind != null ? errorKind.name() : null;
+            event.commit();
+        }
+        return error;
     }
 
     // Getting the direction we came from
@@ -79,14 +290,13 @@ public class FollowPath {
         int rowIndex = currentPosition[0];
         int columnIndex = currentPosition[1];
 
-        Map<int[], Character> neighbors = new HashMap<>() {{
-            if(rowIndex > 0) put(new int[]{rowIndex-1, columnIndex}, map[rowIndex-1][columnIndex]);
-            if(columnIndex < map[rowIndex].length - 1) put(new int[]{rowIndex, columnIndex+1}, map[rowIndex][columnIndex+1]);
-            if(rowIndex < map.length - 1) put(new int[]{rowIndex+1, columnIndex}, map[rowIndex+1][columnIndex]);
-            if(columnIndex > 0) put(new int[]{rowIndex, columnIndex-1}, map[rowIndex][columnIndex-1]);
-        }};
-
-        return neighbors.entrySet().stream().filter(w -> w.getValue() != ' ').collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        // Only the non empty neighbours are added, keys are compared by identity so they are never merged
+        Map<int[], Character> neighbors = new HashMap<>();
+        for(int[] neighbor : new int[][]{{rowIndex - 1, columnIndex}, {rowIndex, columnIndex + 1}, {rowIndex + 1, columnIndex}, {rowIndex, columnIndex - 1}}) {
+            char character = grid.charAt(neighbor[0], neighbor[1]);
+            if(character != ' ') neighbors.put(neighbor, character);
+        }
+        return neighbors;
     }
 
     // The function returns the step opposite to the direction we are coming from
@@ -95,219 +305,21 @@ public class FollowPath {
         int columnIndex = currentPosition[1];
         // We are looking for a left or a right step
         if(direction == FROM_LEFT || direction == FROM_RIGHT) {
-            char leftStep = columnIndex > 0 ? map[rowIndex][columnIndex - 1] : ' ';
-            char rightStep = columnIndex < map[rowIndex].length - 1 ? map[rowIndex][columnIndex + 1] : ' ';
+            char leftStep = grid.charAt(rowIndex, columnIndex - 1);
+            char rightStep = grid.charAt(rowIndex, columnIndex + 1);
             return direction == FROM_LEFT ? rightStep : leftStep;
         }
         // We are looking for a top or bottom step
         else {
-            char aboveStep = rowIndex > 0 ? map[rowIndex - 1][columnIndex] : ' ';
-            char bottomStep = rowIndex < map.length - 1 ? map[rowIndex + 1][columnIndex] : ' ';
+            char aboveStep = grid.charAt(rowIndex - 1, columnIndex);
+            char bottomStep = grid.charAt(rowIndex + 1, columnIndex);
             return direction == FROM_ABOVE ? bottomStep : aboveStep;
         }
     }
 
-    private void handleHorizontalOrVerticalStep(int direction, int[] currentPosition, List<Character> letters, List<Character> path, List<int[]> letterIndexes) {
-        int rowIndex = currentPosition[0];
-        int columnIndex = currentPosition[1];
-        char nextStep = getHorizontalOrVerticalStep(direction, currentPosition);
-        // If we came from left we go right and vice versa if next step is valid
-        if(direction == FROM_LEFT || direction == FROM_RIGHT) {
-            char aboveStep = getHorizontalOrVerticalStep(FROM_BELOW, currentPosition);
-            char belowStep = getHorizontalOrVerticalStep(FROM_ABOVE, currentPosition);
-            if((aboveStep == ' ' || aboveStep == '-') && (belowStep == ' ' || belowStep == '-') && nextStep == ' ') throw new Error ("Invalid input, broken path!");
-            makeStep(new int[]{rowIndex, direction == FROM_LEFT ? columnIndex + 1 : columnIndex - 1}, letters, path, letterIndexes, currentPosition);
-        }
-        // If we came from above we go down and vice versa if next step is valid
-        else {
-            char rightStep = getHorizontalOrVerticalStep(FROM_LEFT, currentPosition);
-            char leftStep = getHorizontalOrVerticalStep(FROM_RIGHT, currentPosition);
-            if((rightStep == ' ' || rightStep == '|') && (leftStep == ' ' || leftStep == '|') && nextStep == ' ') throw new Error ("Invalid input, broken path!");
-            makeStep(new int[]{direction == FROM_ABOVE ? rowIndex + 1 : rowIndex - 1, columnIndex}, letters, path, letterIndexes, currentPosition);
-        }
-    }
-
-    private void handleCrossingStep(int direction, int[] currentPosition, List<Character> letters, List<Character> path, List<int[]> letterIndexes) {
-        int rowIndex = currentPosition[0];
-        int columnIndex = currentPosition[1];
-
-        // If we came from left or right we go either above or down
-        if(direction == FROM_LEFT || direction == FROM_RIGHT) {
-            char aboveStep = getHorizontalOrVerticalStep(FROM_BELOW, currentPosition);
-            char belowStep = getHorizontalOrVerticalStep(FROM_ABOVE, currentPosition);
-
-            if(aboveStep != ' ' && aboveStep != '-') {
-                if(belowStep != ' ' && belowStep != '-') throw new Error("Invalid input, fork in the path!");
-                makeStep(new int[]{rowIndex - 1, columnIndex}, letters, path, letterIndexes, currentPosition);
-            }
-            if(belowStep != ' ' && belowStep != '-') {
-                makeStep(new int[]{rowIndex + 1, columnIndex}, letters, path, letterIndexes, currentPosition);
-            }
-            if((aboveStep == ' ' || aboveStep == '-') && (belowStep == ' ' || belowStep == '-')) {
-                throw new Error("Invalid input, fake turn!");
-            }
-        }
-        // If we came from above or down we go either left or right
-        else {
-            char leftStep = getHorizontalOrVerticalStep(FROM_RIGHT, currentPosition);
-            char rightStep = getHorizontalOrVerticalStep(FROM_LEFT, currentPosition);
-
-            if(leftStep != ' ' && leftStep != '|') {
-                if(rightStep != ' ' && rightStep != '|') throw new Error("Invalid input, fork in the path!");
-                makeStep(new int[]{rowIndex, columnIndex - 1}, letters, path, letterIndexes, currentPosition);
-            }
-            if(rightStep != ' ' && rightStep != '|') {
-                makeStep(new int[]{rowIndex, columnIndex + 1}, letters, path, letterIndexes, currentPosition);
-            }
-            if((leftStep == ' ' || leftStep == '|') && (rightStep == ' ' || rightStep == '|')) {
-                throw new Error("Invalid input, fake turn!");
-            }
-        }
-    }
-
-    private void handleLetterStep(int direction, int[] currentPosition, List<Character> letters, List<Character> path, List<int[]> letterIndexes) {
-        int rowIndex = currentPosition[0];
-        int columnIndex = currentPosition[1];
-
-        boolean isLetterVisited = letterIndexes.stream().anyMatch(position -> Arrays.equals(position, currentPosition));
-
-        // If we came across the same letter twice (letter on the crossing) we won't enter this case
-        if (!isLetterVisited) {
-            letters.add(map[rowIndex][columnIndex]);
-            letterIndexes.add(currentPosition);
-        }
-        char nextStep = getHorizontalOrVerticalStep(direction, currentPosition);
-        // Coming from left we are looking to go right and vice versa
-        if(direction == FROM_LEFT || direction == FROM_RIGHT) {
-            char belowStep = getHorizontalOrVerticalStep(FROM_ABOVE, currentPosition);
-            char aboveStep = getHorizontalOrVerticalStep(FROM_BELOW, currentPosition);
-            boolean isBelowValid = belowStep != ' ' && belowStep != '-';
-            boolean isAboveValid = aboveStep != ' ' && aboveStep != '-';
-
-            if(!isBelowValid && !isAboveValid && nextStep == '|') {
-                throw new Error("Invalid input, broken path!");
-            }
-            if(nextStep != ' ' && nextStep != '|') {
-                makeStep(new int[]{rowIndex, direction == FROM_LEFT ? columnIndex + 1 : columnIndex - 1}, letters, path, letterIndexes, currentPosition);
-            }
-            // If not able to go straight go either up or down
-            else {
-                if(isBelowValid && isAboveValid) {
-                    throw new Error("Invalid input, fork in the path");
-                }
-                if(isBelowValid || isAboveValid) {
-                    int upOrDown = isBelowValid ? rowIndex + 1 : rowIndex - 1;
-                    makeStep(new int[]{upOrDown, columnIndex}, letters, path, letterIndexes, currentPosition);
-                }
-            }
-        }
-        // Coming from above we are looking to go below and vice versa
-        else {
-            char rightStep = getHorizontalOrVerticalStep(FROM_LEFT, currentPosition);
-            char leftStep = getHorizontalOrVerticalStep(FROM_RIGHT, currentPosition);
-            boolean isRightValid = rightStep != ' ' && rightStep != '|';
-            boolean isLeftValid = leftStep != ' ' && leftStep != '|';
-
-            if(!isRightValid && !isLeftValid && nextStep == '-') {
-                throw new Error("Invalid input, broken path!");
-            }
-            if(nextStep != ' ' && nextStep != '-') {
-                makeStep(new int[]{direction == FROM_ABOVE ? rowIndex + 1 : rowIndex - 1, columnIndex}, letters, path, letterIndexes, currentPosition);
-            }
-            // If not able to go straight go either right or left
-            else {
-                if(isRightValid && isLeftValid) {
-                    throw new Error("Invalid input, fork in the path!");
-                }
-                if(isRightValid || isLeftValid) {
-                    int rightOrLeft = isRightValid ? columnIndex + 1 : columnIndex - 1;
-                    makeStep(new int[]{rowIndex, rightOrLeft}, letters, path, letterIndexes, currentPosition);
-                }
-            }
-        }
-    }
-
-    // Making this method to call the starting position only once, to avoid passing non-existing previous position as parameter
-    private void makeStep(int[] startPosition, List<Character> letters, List<Character> path, List<int[]> letterIndexes) {
-        int rowIndex = startPosition[0];
-        int columnIndex = startPosition[1];
-
-        char currentChar = map[rowIndex][columnIndex];
-        // Setting a map for each character (key) and its respective coordinates (value) (checking for multiple starting paths)
-        Map<int[], Character> ways = getSurroundingWays(startPosition);
-
-        // If the starting position offers only one way to go we can proceed with further checks
-        if(ways.size() == 1) {
-            int[] wayPosition = ways.keySet().iterator().next();
-            char wayChar = ways.values().iterator().next();
-            int direction = getDirection(wayPosition, startPosition);
-
-            //                                           -
-            // Checking for these scenarios: |@ or @| or @ or @
-            //                                                -
-            if((direction == FROM_LEFT || direction == FROM_RIGHT) && wayChar == '|'
-                    || (direction == FROM_ABOVE || direction == FROM_BELOW) && wayChar == '-') {
-                throw new Error("Invalid input, broken path!");
-            }
-            path.add(currentChar);
-            // Invoking next step call with starting position as previous position
-            makeStep(wayPosition, letters, path, letterIndexes, startPosition);
-        } else if (ways.isEmpty()) {
-            throw new Error("Invalid input, broken path!");
-        } else {
-            throw new Error("Invalid input, multiple starting paths!");
-        }
-    }
-
-    // Making this method as override to previous one with addition of previousPosition parameter
-    private void makeStep(int[] currentPosition, List<Character> letters, List<Character> path, List<int[]> letterIndexes, int[] previousPosition) {
-        int rowIndex = currentPosition[0];
-        int columnIndex = currentPosition[1];
-
-        char currentChar = map[rowIndex][columnIndex];
-
-        path.add(currentChar);
-
-        if(currentChar == 'x') {
-            // We reached the end successfully
-            return;
-        }
-
-        Map<int[], Character> ways = getSurroundingWays(currentPosition);
-
-        // From ways filtering out the previous step as we don't want to go back
-        Map<int[], Character> possibleWays =
-                ways
-                        .entrySet().stream().filter(w -> !Arrays.equals(w.getKey(), previousPosition))
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-        if(possibleWays.isEmpty()) {
-            // If there is no possible way around then the path is broken
-            throw new Error("Invalid input, broken path!");
-        }
-
-        int direction = getDirection(previousPosition, currentPosition);
-
-        switch (currentChar) {
-            case '-', '|' -> handleHorizontalOrVerticalStep(direction, currentPosition, letters, path, letterIndexes);
-            case '+' -> handleCrossingStep(direction, currentPosition, letters, path, letterIndexes);
-            default -> {
-                // We check for an uppercase letter as the current step
-                if (isCharUpperCaseLetter(currentChar)) {
-                    handleLetterStep(direction, currentPosition, letters, path, letterIndexes);
-                } else {
-                    throw new Error("Invalid input, unrecognized character!");
-                }
-            }
-        }
-
-    }
-
     // Checking whether a character is an uppercase letter
     public boolean isCharUpperCaseLetter(char character) {
-        String pattern = "[A-Z]";
-        String charAsString = Character.toString(character);
-        return Pattern.matches(pattern, charAsString);
+        return Cells.classOf(character) == Cells.LETTER;
     }
 
 }
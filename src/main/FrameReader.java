@@ -0,0 +1,125 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// Splitting a stream of maps into frames, either separated by blank lines or each preceded by a line with its length in bytes.
+// The input is read in large chunks and frames point into them instead of being copied out: a chunk is never written again
+// once frames were handed out of it, when it is full the unread rest moves to a new one. So reading costs a chunk per
+// CHUNK_SIZE bytes of input however small the maps are, and a chunk is garbage as soon as the maps in it are parsed.
+// Frames which can't be read fail with SolveCli.InvalidInputException, errors of the channel are passed on as they are.
+final class FrameReader {
+
+    static final int CHUNK_SIZE = 1 << 20;
+    // Larger maps are better memory mapped, see MappedGrid
+    static final int MAX_FRAME_SIZE = 1 << 30;
+
+    private final ReadableByteChannel channel;
+    private final boolean lengthPrefixed;
+    private final int chunkSize;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean ended;
+
+    FrameReader(ReadableByteChannel channel, boolean lengthPrefixed) {
+        this(channel, lengthPrefixed, CHUNK_SIZE);
+    }
+
+    FrameReader(ReadableByteChannel channel, boolean lengthPrefixed, int chunkSize) {
+        this.channel = channel;
+        this.lengthPrefixed = lengthPrefixed;
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+    }
+
+    // The next map, null at the end of the input
+    Frame next() throws IOException {
+        return lengthPrefixed ? nextLengthPrefixed() : nextBlankLineSeparated();
+    }
+
+    // Blank lines before a map are skipped, so are line breaks at the end of the input. A map can't have empty rows this way.
+    private Frame nextBlankLineSeparated() throws IOException {
+        while(true) {
+            if(!ensure(1)) return null;
+            if(buffer[position] != '\n' && buffer[position] != '\r') break;
+            position++;
+        }
+
+        for(int i = position; ; i++) {
+            if(limit - i < 3) {
+                int offset = i - position;
+                if(offset >= MAX_FRAME_SIZE) throw new SolveCli.InvalidInputException("Map larger than " + MAX_FRAME_SIZE + " bytes");
+                ensure(offset + 3);
+                i = position + offset;
+            }
+            // The last map doesn't need a blank line after it
+            if(i >= limit) return frame(limit - position, 0);
+            if(buffer[i] != '\n') continue;
+
+            if(i + 1 == limit || buffer[i + 1] == '\n' || buffer[i + 1] == '\r' && (i + 2 == limit || buffer[i + 2] == '\n')) {
+                return frame(i - position, 1);
+            }
+        }
+    }
+
+    // A decimal length and a line break ("\n" or "\r\n"), then exactly that many bytes. Line breaks between frames are skipped.
+    private Frame nextLengthPrefixed() throws IOException {
+        while(true) {
+            if(!ensure(1)) return null;
+            if(buffer[position] != '\n' && buffer[position] != '\r') break;
+            position++;
+        }
+
+        int digits = 0;
+        long length = 0;
+        while(ensure(digits + 1) && buffer[position + digits] >= '0' && buffer[position + digits] <= '9') {
+            length = length * 10 + buffer[position + digits] - '0';
+            if(length > MAX_FRAME_SIZE) throw new SolveCli.InvalidInputException("Map larger than " + MAX_FRAME_SIZE + " bytes");
+            digits++;
+        }
+        int headerLength = digits;
+        if(ensure(headerLength + 1) && buffer[position + headerLength] == '\r') headerLength++;
+        if(digits == 0 || !ensure(headerLength + 1) || buffer[position + headerLength] != '\n') {
+            throw new SolveCli.InvalidInputException("Invalid frame header, expected the length of the map in bytes and a line break");
+        }
+        position += headerLength + 1;
+
+        if(!ensure((int) length)) throw new SolveCli.InvalidInputException("Truncated map, expected " + length + " bytes but the input ended after " + (limit - position));
+        return frame((int) length, 0);
+    }
+
+    // The frame of the given length at the position, the position moves past it and the given number of bytes after it
+    private Frame frame(int length, int skipped) {
+        Frame frame = new Frame(buffer, position, length);
+        position += length + skipped;
+        return frame;
+    }
+
+    // Reading until there are at least count bytes after the position, false if the input ends before
+    private boolean ensure(int count) throws IOException {
+        while(limit - position < count) {
+            if(ended) return false;
+            if(limit == buffer.length) {
+                int remaining = limit - position;
+                byte[] next = new byte[(int) Math.min(Math.max(chunkSize, Math.max(2L * remaining, count)), Integer.MAX_VALUE - 8)];
+                System.arraycopy(buffer, position, next, 0, remaining);
+                buffer = next;
+                position = 0;
+                limit = remaining;
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+            if(read < 0) {
+                ended = true;
+            } else {
+                limit += read;
+            }
+        }
+        return true;
+    }
+
+    // A map's bytes, only ever read
+    record Frame(byte[] bytes, int offset, int length) {
+    }
+}
@@ -0,0 +1,17 @@
+package main;
+
+// Read-only view of a map the path is followed on
+public interface Grid {
+
+    int rows();
+
+    // Length of the widest row
+    int columns();
+
+    int rowLength(int rowIndex);
+
+    // Everything outside of the map (or past the end of a shorter row) is an empty space.
+    // The path is never followed further than one cell out of the map, so callers don't read more than two cells outside of it,
+    // which lets padded implementations skip the bounds checks.
+    char charAt(int rowIndex, int columnIndex);
+}
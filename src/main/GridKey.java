@@ -0,0 +1,37 @@
+package main;
+
+// Content hash of a grid, two independent 64 bit hashes computed in one pass, so that colliding maps are practically impossible
+record GridKey(int rows, int columns, long hash1, long hash2) {
+
+    private static final long MULTIPLIER1 = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER2 = 0xC2B2AE3D27D4EB4FL;
+
+    static GridKey of(Grid grid) {
+        if(grid instanceof FlatGrid flatGrid) return flatGrid.key();
+        if(grid instanceof SparseGrid sparseGrid) return sparseGrid.key();
+        if(grid instanceof TiledGrid tiledGrid) return tiledGrid.key();
+
+        Hasher hasher = new Hasher();
+        for(int i = 0; i < grid.rows(); i++) {
+            for(int j = 0; j < grid.columns(); j++) {
+                hasher.add(grid.charAt(i, j));
+            }
+        }
+        return hasher.key(grid.rows(), grid.columns());
+    }
+
+    static final class Hasher {
+
+        private long hash1 = 1;
+        private long hash2 = 2;
+
+        void add(long value) {
+            hash1 = Long.rotateLeft((hash1 ^ value) * MULTIPLIER1, 29);
+            hash2 = Long.rotateLeft((hash2 + value) * MULTIPLIER2, 31) ^ hash1;
+        }
+
+        GridKey key(int rows, int columns) {
+            return new GridKey(rows, columns, hash1, hash2);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package main;
+
+// Minimal JSON writing for the solver's responses, which only ever contain strings
+final class Json {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    static StringBuilder appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        for(int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if(character < 0x20) {
+                        builder.append("\\u00").append(HEX[character >> 4]).append(HEX[character & 0xF]);
+                    } else {
+                        builder.append(character);
+                    }
+                }
+            }
+        }
+        return builder.append('"');
+    }
+
+    // {"Letters":"...","Path":"..."}
+    static String result(String letters, String path) {
+        StringBuilder builder = new StringBuilder(path.length() + letters.length() + 32);
+        builder.append("{\"Letters\":");
+        appendString(builder, letters);
+        builder.append(",\"Path\":");
+        appendString(builder, path);
+        return builder.append('}').toString();
+    }
+
+    // {"error":"..."}
+    static String error(String message) {
+        StringBuilder builder = new StringBuilder(message.length() + 16);
+        builder.append("{\"error\":");
+        appendString(builder, message);
+        return builder.append('}').toString();
+    }
+
+    // {"map":0,"Letters":"...","Path":"..."} or {"map":0,"error":"..."}, a line of SolveCli's output
+    static String line(long map, SolveResult result) {
+        StringBuilder builder = new StringBuilder(result.isSuccess() ? result.path().length() + result.letters().length() + 48 : 80);
+        builder.append("{\"map\":").append(map);
+        if(result.isSuccess()) {
+            builder.append(",\"Letters\":");
+            appendString(builder, result.letters());
+            builder.append(",\"Path\":");
+            appendString(builder, result.path());
+        } else {
+            builder.append(",\"error\":");
+            appendString(builder, result.error().message());
+        }
+        return builder.append("}\n").toString();
+    }
+}
@@ -0,0 +1,71 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+// Offsets and lengths of the lines of an ASCII map file ("\n" or "\r\n" separated), built in a single pass over the file
+final class LineIndex {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // Offset of the first byte of each row
+    final long[] lineStarts;
+    final int[] rowLengths;
+    final int rows;
+    final int columns;
+
+    private LineIndex(long[] lineStarts, int[] rowLengths, int rows, int columns) {
+        this.lineStarts = lineStarts;
+        this.rowLengths = rowLengths;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    static LineIndex build(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] lineStarts = new long[64];
+        int[] rowLengths = new int[64];
+        int rows = 0;
+        int columns = 0;
+        long lineStart = 0;
+        byte previous = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        byte[] chunk = buffer.array();
+
+        for(long chunkStart = 0; chunkStart < size; ) {
+            buffer.clear();
+            int length = channel.read(buffer, chunkStart);
+            if(length < 0) break;
+            for(int i = 0; i < length; i++) {
+                byte current = chunk[i];
+                if(current == '\n') {
+                    long lineEnd = chunkStart + i - (previous == '\r' ? 1 : 0);
+                    if(rows == lineStarts.length) {
+                        lineStarts = Arrays.copyOf(lineStarts, rows * 2);
+                        rowLengths = Arrays.copyOf(rowLengths, rows * 2);
+                    }
+                    lineStarts[rows] = lineStart;
+                    rowLengths[rows] = (int) (lineEnd - lineStart);
+                    columns = Math.max(columns, rowLengths[rows++]);
+                    lineStart = chunkStart + i + 1;
+                }
+                previous = current;
+            }
+            chunkStart += length;
+        }
+        // The last line does not have to end with a line break
+        if(lineStart < size) {
+            if(rows == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, rows + 1);
+                rowLengths = Arrays.copyOf(rowLengths, rows + 1);
+            }
+            lineStarts[rows] = lineStart;
+            rowLengths[rows] = (int) (size - lineStart - (previous == '\r' ? 1 : 0));
+            columns = Math.max(columns, rowLengths[rows++]);
+        }
+
+        return new LineIndex(lineStarts, rowLengths, rows, columns);
+    }
+}
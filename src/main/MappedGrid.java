@@ -0,0 +1,67 @@
+package main;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Grid read straight from a memory-mapped ASCII map file, one line per row ("\n" or "\r\n" separated).
+// Loading only builds an index of line offsets, the cells themselves are never copied onto the heap.
+public final class MappedGrid implements Grid {
+
+    // Files are mapped in segments, as a single mapping can not be larger than 2GB
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final MappedByteBuffer[] segments;
+    // Offset of the first byte of each row
+    private final long[] lineStarts;
+    private final int[] rowLengths;
+    private final int rows;
+    private final int columns;
+
+    private MappedGrid(MappedByteBuffer[] segments, long[] lineStarts, int[] rowLengths, int rows, int columns) {
+        this.segments = segments;
+        this.lineStarts = lineStarts;
+        this.rowLengths = rowLengths;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    public static MappedGrid open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for(int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, size - position));
+            }
+            LineIndex index = LineIndex.build(channel);
+            // The mapping stays valid after the channel is closed
+            return new MappedGrid(segments, index.lineStarts, index.rowLengths, index.rows, index.columns);
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int rowLength(int rowIndex) {
+        return rowLengths[rowIndex];
+    }
+
+    @Override
+    public char charAt(int rowIndex, int columnIndex) {
+        if(rowIndex < 0 || rowIndex >= rows || columnIndex < 0 || columnIndex >= rowLengths[rowIndex]) return ' ';
+        long offset = lineStarts[rowIndex] + columnIndex;
+        return (char) (segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK)) & 0xFF);
+    }
+}
@@ -0,0 +1,260 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Finding '@' and 'x' in a flat grid eight cells at a time: every long read of the cell array is compared against both markers
+// at once (SWAR), and only the rare words that contain a marker are looked at cell by cell.
+// Large grids are split into chunks of rows scanned on the fork-join pool, the scan stops at the second '@'.
+// Sparse grids are scanned over their stored cells only, tiled grids straight through their file.
+final class MarkerScan {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long STARTS = ONES * '@';
+    private static final long ENDS = ONES * 'x';
+
+    // Grids smaller than this are not worth handing to other threads
+    static final int PARALLEL_THRESHOLD = 1 << 22;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private MarkerScan() {
+    }
+
+    // Filling in the position of '@', or returning the same error FollowPath.getStartingPosition() would throw
+    static SolveError findStartingPosition(FlatGrid grid, int[] startPosition) {
+        Markers markers = grid.size() < PARALLEL_THRESHOLD ? scan(grid, 0, grid.size()) : scanParallel(grid);
+
+        if(markers.secondStart >= 0) {
+            return new SolveError(ErrorKind.TWO_STARTING_POSITIONS, grid.rowOf(markers.secondStart), grid.columnOf(markers.secondStart), -1);
+        }
+        if(markers.firstStart < 0) return new SolveError(ErrorKind.MISSING_STARTING_POSITION, -1, -1, -1);
+        if(!markers.end) return new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1);
+        startPosition[0] = grid.rowOf(markers.firstStart);
+        startPosition[1] = grid.columnOf(markers.firstStart);
+        return null;
+    }
+
+    private static Markers scanParallel(FlatGrid grid) {
+        int chunkSize = chunkSize(grid);
+        // Chunks after one holding two '@' can not change the result and are skipped
+        AtomicInteger firstChunkWithTwoStarts = new AtomicInteger(Integer.MAX_VALUE);
+
+        return IntStream.range(0, chunks(grid, chunkSize)).parallel()
+                .mapToObj(chunk -> {
+                    if(chunk > firstChunkWithTwoStarts.get()) return Markers.NONE;
+                    Markers markers = scan(grid, chunk * chunkSize, chunkEnd(grid, chunk, chunkSize));
+                    if(markers.secondStart >= 0) firstChunkWithTwoStarts.accumulateAndGet(chunk, Math::min);
+                    return markers;
+                })
+                .reduce(Markers.NONE, Markers::then);
+    }
+
+    // Every '@' in row-major order, for following many routes on one map
+    static StartMarkers findAllStartingPositions(FlatGrid grid) {
+        if(grid.size() < PARALLEL_THRESHOLD) return scanAll(grid, 0, grid.size());
+
+        int chunkSize = chunkSize(grid);
+        return IntStream.range(0, chunks(grid, chunkSize)).parallel()
+                .mapToObj(chunk -> scanAll(grid, chunk * chunkSize, chunkEnd(grid, chunk, chunkSize)))
+                .reduce(new StartMarkers(List.of(), false), StartMarkers::then);
+    }
+
+    // Cells of whole rows, about CHUNK_SIZE of them
+    private static int chunkSize(FlatGrid grid) {
+        return Math.max(1, CHUNK_SIZE / grid.stride()) * grid.stride();
+    }
+
+    // Counted in long, as the last chunk of a grid close to FlatGrid.MAX_SIZE can end past Integer.MAX_VALUE
+    private static int chunks(FlatGrid grid, int chunkSize) {
+        return (int) ((grid.size() + (long) chunkSize - 1) / chunkSize);
+    }
+
+    private static int chunkEnd(FlatGrid grid, int chunk, int chunkSize) {
+        return (int) Math.min(grid.size(), (chunk + 1L) * chunkSize);
+    }
+
+    private static StartMarkers scanAll(FlatGrid grid, int from, int to) {
+        List<Position> starts = new ArrayList<>();
+        boolean end = false;
+
+        int i = from;
+        for(; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = grid.word(i);
+            long found = zeroBytes(word ^ STARTS);
+            if(!end) found |= zeroBytes(word ^ ENDS);
+            if(found == 0) continue;
+
+            for(int j = i; j < i + Long.BYTES; j++) {
+                byte cell = grid.cell(j);
+                if(cell == '@') starts.add(new Position(grid.rowOf(j), grid.columnOf(j)));
+                else if(cell == 'x') end = true;
+            }
+        }
+        for(; i < to; i++) {
+            byte cell = grid.cell(i);
+            if(cell == '@') starts.add(new Position(grid.rowOf(i), grid.columnOf(i)));
+            else if(cell == 'x') end = true;
+        }
+        return new StartMarkers(starts, end);
+    }
+
+    // Scanning the cells [from, to) in order, stopping at the second '@'
+    private static Markers scan(FlatGrid grid, int from, int to) {
+        int firstStart = -1;
+        boolean end = false;
+
+        int i = from;
+        for(; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = grid.word(i);
+            long found = zeroBytes(word ^ STARTS);
+            // Once an 'x' is found, only '@' is still looked for
+            if(!end) found |= zeroBytes(word ^ ENDS);
+            if(found == 0) continue;
+
+            for(int j = i; j < i + Long.BYTES; j++) {
+                byte cell = grid.cell(j);
+                if(cell == '@') {
+                    if(firstStart >= 0) return new Markers(firstStart, j, end);
+                    firstStart = j;
+                } else if(cell == 'x') {
+                    end = true;
+                }
+            }
+        }
+        for(; i < to; i++) {
+            byte cell = grid.cell(i);
+            if(cell == '@') {
+                if(firstStart >= 0) return new Markers(firstStart, i, end);
+                firstStart = i;
+            } else if(cell == 'x') {
+                end = true;
+            }
+        }
+        return new Markers(firstStart, -1, end);
+    }
+
+    // Index of the 'x' if the grid has exactly one, -1 otherwise
+    static int findOnlyEnd(FlatGrid grid) {
+        int end = -1;
+        int i = 0;
+        for(; i + Long.BYTES <= grid.size(); i += Long.BYTES) {
+            if(zeroBytes(grid.word(i) ^ ENDS) == 0) continue;
+            for(int j = i; j < i + Long.BYTES; j++) {
+                if(grid.cell(j) != 'x') continue;
+                if(end >= 0) return -1;
+                end = j;
+            }
+        }
+        for(; i < grid.size(); i++) {
+            if(grid.cell(i) != 'x') continue;
+            if(end >= 0) return -1;
+            end = i;
+        }
+        return end;
+    }
+
+    // Sparse grids only hold the non-space cells, which are scanned in row-major order one by one
+    static SolveError findStartingPosition(SparseGrid grid, int[] startPosition) {
+        boolean startFound = false;
+        boolean endFound = false;
+        for(int row = 0; row < grid.rows(); row++) {
+            for(int cell = grid.rowStart(row); cell < grid.rowStart(row + 1); cell++) {
+                byte character = grid.cell(cell);
+                if(character == '@') {
+                    if(startFound) return new SolveError(ErrorKind.TWO_STARTING_POSITIONS, row, grid.columnOf(cell), -1);
+                    startPosition[0] = row;
+                    startPosition[1] = grid.columnOf(cell);
+                    startFound = true;
+                } else if(character == 'x') {
+                    endFound = true;
+                }
+            }
+        }
+
+        if(!startFound) return new SolveError(ErrorKind.MISSING_STARTING_POSITION, -1, -1, -1);
+        if(!endFound) return new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1);
+        return null;
+    }
+
+    static StartMarkers findAllStartingPositions(SparseGrid grid) {
+        List<Position> starts = new ArrayList<>();
+        boolean end = false;
+        for(int row = 0; row < grid.rows(); row++) {
+            for(int cell = grid.rowStart(row); cell < grid.rowStart(row + 1); cell++) {
+                byte character = grid.cell(cell);
+                if(character == '@') starts.add(new Position(row, grid.columnOf(cell)));
+                else if(character == 'x') end = true;
+            }
+        }
+        return new StartMarkers(starts, end);
+    }
+
+    // Tiled grids are read row by row straight through the file (see TiledGrid.forEachRow), stopping at the second '@'
+    static SolveError findStartingPosition(TiledGrid grid, int[] startPosition) {
+        StartMarkers markers = scanRows(grid, 2);
+        if(markers.starts.size() > 1) {
+            Position second = markers.starts.get(1);
+            return new SolveError(ErrorKind.TWO_STARTING_POSITIONS, second.row(), second.column(), -1);
+        }
+        if(markers.starts.isEmpty()) return new SolveError(ErrorKind.MISSING_STARTING_POSITION, -1, -1, -1);
+        if(!markers.end) return new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1);
+        startPosition[0] = markers.starts.get(0).row();
+        startPosition[1] = markers.starts.get(0).column();
+        return null;
+    }
+
+    static StartMarkers findAllStartingPositions(TiledGrid grid) {
+        return scanRows(grid, Integer.MAX_VALUE);
+    }
+
+    private static StartMarkers scanRows(TiledGrid grid, int maxStarts) {
+        List<Position> starts = new ArrayList<>();
+        boolean[] end = new boolean[1];
+        grid.forEachRow((row, bytes, offset, length) -> {
+            for(int i = offset; i < offset + length; i++) {
+                if(bytes[i] == '@') {
+                    starts.add(new Position(row, i - offset));
+                    if(starts.size() == maxStarts) return false;
+                } else if(bytes[i] == 'x') {
+                    end[0] = true;
+                }
+            }
+            return true;
+        });
+        return new StartMarkers(starts, end[0]);
+    }
+
+    // High bit set in every zero byte of the word (bytes above a zero byte can be falsely marked, which only costs a look at the word)
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGHS;
+    }
+
+    // Every '@' and whether there is an 'x' in a range of cells
+    record StartMarkers(List<Position> starts, boolean end) {
+
+        // Combining with the markers of the range right after this one
+        StartMarkers then(StartMarkers next) {
+            if(next.starts.isEmpty()) return new StartMarkers(starts, end || next.end);
+            List<Position> combined = new ArrayList<>(starts.size() + next.starts.size());
+            combined.addAll(starts);
+            combined.addAll(next.starts);
+            return new StartMarkers(combined, end || next.end);
+        }
+    }
+
+    // Index of the first and second '@' (-1 if there are fewer) and whether there is an 'x' in a range of cells
+    private record Markers(int firstStart, int secondStart, boolean end) {
+
+        static final Markers NONE = new Markers(-1, -1, false);
+
+        // Combining with the markers of the range right after this one
+        Markers then(Markers next) {
+            if(secondStart >= 0) return this;
+            if(firstStart < 0) return new Markers(next.firstStart, next.secondStart, end || next.end);
+            return new Markers(firstStart, next.firstStart, end || next.end);
+        }
+    }
+}
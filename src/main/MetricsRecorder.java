@@ -0,0 +1,72 @@
+package main;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Adding up the statistics of many traversals (possibly on many threads), including how often each kind of error occurred
+public final class MetricsRecorder implements TraversalListener {
+
+    private final LongAdder traversals = new LongAdder();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder crossings = new LongAdder();
+    private final LongAdder letters = new LongAdder();
+    private final LongAdder duplicateLetters = new LongAdder();
+    private final LongAdder startScanNanos = new LongAdder();
+    private final LongAdder traversalNanos = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[ErrorKind.values().length];
+
+    public MetricsRecorder() {
+        for(int i = 0; i < errors.length; i++) errors[i] = new LongAdder();
+    }
+
+    @Override
+    public void onTraversal(TraversalStats stats) {
+        traversals.increment();
+        steps.add(stats.steps());
+        crossings.add(stats.crossings());
+        letters.add(stats.letters());
+        duplicateLetters.add(stats.duplicateLetters());
+        startScanNanos.add(stats.startScanNanos());
+        traversalNanos.add(stats.traversalNanos());
+        if(stats.error() != null) errors[stats.error().ordinal()].increment();
+    }
+
+    public long traversals() {
+        return traversals.sum();
+    }
+
+    public long steps() {
+        return steps.sum();
+    }
+
+    public long crossings() {
+        return crossings.sum();
+    }
+
+    public long letters() {
+        return letters.sum();
+    }
+
+    public long duplicateLetters() {
+        return duplicateLetters.sum();
+    }
+
+    public long startScanNanos() {
+        return startScanNanos.sum();
+    }
+
+    public long traversalNanos() {
+        return traversalNanos.sum();
+    }
+
+    // Number of traversals which ended with each kind of error, kinds which never occurred are left out
+    public Map<ErrorKind, Long> errors() {
+        Map<ErrorKind, Long> counts = new EnumMap<>(ErrorKind.class);
+        for(ErrorKind kind : ErrorKind.values()) {
+            long count = errors[kind.ordinal()].sum();
+            if(count > 0) counts.put(kind, count);
+        }
+        return counts;
+    }
+}
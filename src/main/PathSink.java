@@ -0,0 +1,58 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+
+// Receives the path while it is being followed, instead of collecting it into the Letters/Path result first.
+// When the map turns out to be invalid the sink has already seen the steps up to the error.
+public interface PathSink {
+
+    // Every character of the path in order, with the cell it is on
+    void step(char character, int rowIndex, int columnIndex);
+
+    // A stretch of the path known in advance (see BidirectionalTraversal), the same as calling step() for each of its cells.
+    // Sinks which don't need the positions can take the characters in one go.
+    default void steps(char[] characters, int offset, int length, int[] rowIndexes, int[] columnIndexes) {
+        for(int i = offset; i < offset + length; i++) step(characters[i], rowIndexes[i], columnIndexes[i]);
+    }
+
+    // Every collected letter, a letter on a crossing is only collected the first time we pass it
+    void letter(char letter, int rowIndex, int columnIndex);
+
+    // Writing Letters and Path to e.g. two Writers or StringBuilders
+    static PathSink of(Appendable letters, Appendable path) {
+        return new PathSink() {
+            @Override
+            public void step(char character, int rowIndex, int columnIndex) {
+                try {
+                    path.append(character);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void steps(char[] characters, int offset, int length, int[] rowIndexes, int[] columnIndexes) {
+                try {
+                    if(path instanceof StringBuilder builder) {
+                        builder.append(characters, offset, length);
+                    } else {
+                        path.append(CharBuffer.wrap(characters, offset, length));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void letter(char letter, int rowIndex, int columnIndex) {
+                try {
+                    letters.append(letter);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package main;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Solver of prepared maps, immutable and safe to share between threads. The scratch state of a solve (visited letters and
+// the Letters/Path builders) is kept per thread and reused, so a solve of a prepared map allocates little more than its result.
+// Virtual threads don't live long enough to reuse anything, they only get their scratch state once.
+public final class PathSolver {
+
+    // Scratch state which grew larger than this for a huge map is not kept, so a thread doesn't hold on to the memory
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final int MAX_RETAINED_LETTERS = 1 << 16;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    // Completing asynchronous solves which are still waiting for a thread at their deadline
+    private static final ScheduledThreadPoolExecutor DEADLINES = deadlineScheduler();
+
+    private final long maxSteps;
+    private final Duration maxTime;
+
+    public PathSolver() {
+        this(0, null);
+    }
+
+    // Every solve is stopped by the budget (see FollowPath.setStepBudget and setTimeBudget), zero steps or a null time means no limit
+    public PathSolver(long maxSteps, Duration maxTime) {
+        this.maxSteps = maxSteps;
+        this.maxTime = maxTime;
+    }
+
+    // Same result as FollowPath.start() on the map
+    public Map<String, String> start(PreparedMap map) {
+        return solve(map).orThrow();
+    }
+
+    // Same result as FollowPath.tryStart() on the map
+    public SolveResult solve(PreparedMap map) {
+        return solve(map, budget());
+    }
+
+    private SolveResult solve(PreparedMap map, TraversalBudget budget) {
+        if(map.startError() != null) return SolveResult.failure(map.startError());
+        return solve(map.grid(), map.startRow(), map.startColumn(), map.segments(), budget);
+    }
+
+    // One-off solve of a grid which is not worth preparing (see SolveCli): the start is scanned for and the path followed
+    // without building any index, so the cost of the solve is the scan and the walk
+    SolveResult solve(Grid grid) {
+        int[] startPosition = new int[2];
+        SolveError startError = FollowPath.findStartingPosition(grid, startPosition);
+        if(startError != null) return SolveResult.failure(startError);
+        return solve(grid, startPosition[0], startPosition[1], null, budget());
+    }
+
+    private SolveResult solve(Grid grid, int startRow, int startColumn, SegmentIndex segments, TraversalBudget budget) {
+        Scratch scratch = scratch();
+        try {
+            SolveError error = Traversal.walk(grid, startRow, startColumn, segments, scratch.visitedLetters,
+                    PathSink.of(scratch.letters, scratch.path), null, budget);
+            return SolveResult.of(scratch.letters, scratch.path, error);
+        } finally {
+            scratch.reset();
+        }
+    }
+
+    // Same as solveAsync(map, deadline, executor) on the common fork-join pool
+    public CompletableFuture<SolveResult> solveAsync(PreparedMap map, Instant deadline) {
+        return solveAsync(map, deadline, ForkJoinPool.commonPool());
+    }
+
+    // Solving on the executor, the future completes with the result of solve(map). The deadline (null for none) stops the solve
+    // like a time budget: a solve still running then ends with a BUDGET_EXCEEDED failure holding its progress, one still
+    // waiting for a thread gets the failure (at step 0) right at the deadline and never starts.
+    // Cancelling the future stops a running solve within TraversalBudget.CHECK_INTERVAL steps and frees its scratch state.
+    // A map without a valid start isn't scheduled at all, the future is completed with its error right away.
+    public CompletableFuture<SolveResult> solveAsync(PreparedMap map, Instant deadline, Executor executor) {
+        if(map.startError() != null) return CompletableFuture.completedFuture(SolveResult.failure(map.startError()));
+
+        CompletableFuture<SolveResult> future = new CompletableFuture<>();
+        // Whichever of the solve and the deadline comes first gets the map
+        AtomicBoolean claimed = new AtomicBoolean();
+
+        if(deadline != null) {
+            SolveResult expired = SolveResult.of("", "", new SolveError(ErrorKind.BUDGET_EXCEEDED, map.startRow(), map.startColumn(), 0));
+            ScheduledFuture<?> timeout = DEADLINES.schedule(() -> {
+                if(claimed.compareAndSet(false, true)) future.complete(expired);
+            }, TraversalBudget.nanosUntil(deadline), TimeUnit.NANOSECONDS);
+            // Not keeping the future (and its result) alive until the deadline
+            future.whenComplete((result, failure) -> timeout.cancel(false));
+        }
+
+        try {
+            executor.execute(() -> {
+                if(!claimed.compareAndSet(false, true) || future.isDone()) return;
+                try {
+                    future.complete(solve(map, TraversalBudget.of(maxSteps, maxTime, deadline, future)));
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Same as FollowPath.tryStart(sink) on the map
+    public SolveError solve(PreparedMap map, PathSink sink) {
+        if(map.startError() != null) return map.startError();
+
+        Scratch scratch = scratch();
+        try {
+            return Traversal.walk(map.grid(), map.startRow(), map.startColumn(), map.segments(), scratch.visitedLetters, sink, null, budget());
+        } finally {
+            scratch.reset();
+        }
+    }
+
+    private TraversalBudget budget() {
+        return TraversalBudget.of(maxSteps, maxTime);
+    }
+
+    private static ScheduledThreadPoolExecutor deadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "solve-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    // A sink solving another map on the same thread gets scratch state of its own
+    private static Scratch scratch() {
+        Scratch scratch = SCRATCH.get();
+        if(scratch.inUse) scratch = new Scratch();
+        scratch.inUse = true;
+        return scratch;
+    }
+
+    private static final class Scratch {
+
+        private VisitedCells visitedLetters = new VisitedCells();
+        private StringBuilder letters = new StringBuilder();
+        private StringBuilder path = new StringBuilder();
+        private boolean inUse;
+
+        void reset() {
+            if(visitedLetters.size() > MAX_RETAINED_LETTERS) visitedLetters = new VisitedCells();
+            else if(visitedLetters.size() > 0) visitedLetters.clear();
+            if(letters.capacity() > MAX_RETAINED_CAPACITY) letters = new StringBuilder();
+            else letters.setLength(0);
+            if(path.capacity() > MAX_RETAINED_CAPACITY) path = new StringBuilder();
+            else path.setLength(0);
+            inUse = false;
+        }
+    }
+}
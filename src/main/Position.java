@@ -0,0 +1,5 @@
+package main;
+
+// A cell of the map
+public record Position(int row, int column) {
+}
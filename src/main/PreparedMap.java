@@ -0,0 +1,61 @@
+package main;
+
+// A map checked for its start and end positions and indexed (segment index, and connectivity masks of a flat grid) once,
+// immutable from then on. Any number of threads can solve it at the same time with a PathSolver.
+public final class PreparedMap {
+
+    private final Grid grid;
+    private final SegmentIndex segments;
+    private final int startRow;
+    private final int startColumn;
+    // Error of the start scan, a map without a single start and an end is rejected by every solve
+    private final SolveError startError;
+
+    private PreparedMap(Grid grid) {
+        this.grid = grid;
+        int[] startPosition = new int[2];
+        this.startError = FollowPath.findStartingPosition(grid, startPosition);
+        this.startRow = startPosition[0];
+        this.startColumn = startPosition[1];
+        if(startError == null) {
+            if(grid instanceof FlatGrid flatGrid) flatGrid.connectivity();
+            this.segments = SegmentIndex.build(grid);
+        } else {
+            this.segments = null;
+        }
+    }
+
+    // The map is copied (see Grids.of), later changes to the array are not seen
+    public static PreparedMap of(char[][] map) {
+        return new PreparedMap(Grids.of(map));
+    }
+
+    // Parsing ASCII map lines ("\n" or "\r\n" separated)
+    public static PreparedMap parse(byte[] bytes, int offset, int length) {
+        return new PreparedMap(Grids.parse(bytes, offset, length));
+    }
+
+    public boolean isValid() {
+        return startError == null;
+    }
+
+    Grid grid() {
+        return grid;
+    }
+
+    SegmentIndex segments() {
+        return segments;
+    }
+
+    int startRow() {
+        return startRow;
+    }
+
+    int startColumn() {
+        return startColumn;
+    }
+
+    SolveError startError() {
+        return startError;
+    }
+}
@@ -0,0 +1,79 @@
+package main;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+// Opt-in cache of results (and validation errors) of FollowPath.start(), keyed by a content hash of the map.
+// The least recently used results are evicted once the total weight (characters of Letters and Path) exceeds the limit.
+// A cache can be shared by many FollowPath instances and threads.
+public final class ResultCache {
+
+    // Rough weight of an entry apart from its strings, so that many tiny results are bounded as well
+    private static final long ENTRY_OVERHEAD = 64;
+
+    private final long maxWeight;
+    private final LinkedHashMap<GridKey, SolveResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultCache(long maxWeight) {
+        if(maxWeight <= 0) throw new IllegalArgumentException("Maximum weight has to be positive");
+        this.maxWeight = maxWeight;
+    }
+
+    // Returning the cached result (or error) of the map, or computing (and caching) it with the solver
+    SolveResult get(Grid grid, FollowPath solver) {
+        GridKey key = GridKey.of(grid);
+        SolveResult entry;
+        synchronized(this) {
+            entry = entries.get(key);
+            if(entry != null) hits++;
+            else misses++;
+        }
+
+        if(entry == null) {
+            entry = solver.solve();
+            // Whether the budget runs out depends on the solver (and the clock), not only on the map
+            if(entry.error() == null || entry.error().kind() != ErrorKind.BUDGET_EXCEEDED) put(key, entry);
+        }
+        return entry;
+    }
+
+    private synchronized void put(GridKey key, SolveResult entry) {
+        // Results heavier than the whole cache are not kept
+        if(weight(entry) > maxWeight) return;
+        SolveResult previous = entries.put(key, entry);
+        if(previous != null) weight -= weight(previous);
+        weight += weight(entry);
+
+        Iterator<SolveResult> iterator = entries.values().iterator();
+        while(weight > maxWeight && iterator.hasNext()) {
+            weight -= weight(iterator.next());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, long weight) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private static long weight(SolveResult entry) {
+        return ENTRY_OVERHEAD + (entry.isSuccess() ? entry.letters().length() + entry.path().length() : 0);
+    }
+}
@@ -0,0 +1,210 @@
+package main;
+
+import java.util.Arrays;
+
+// Straight runs of line cells ('-' and '|', i.e. also lines crossed straight through) of a grid, so that the traversal
+// can jump from one end of a run to the other instead of checking the neighbours of every cell on the way.
+// A path only ever enters a run (in the run's direction) at one of its ends, so only the ends are indexed:
+// an open-addressed table maps each end of a run to the coordinate of its other end, separately for rows and columns.
+final class SegmentIndex {
+
+    // Shorter runs are cheaper to step through than to look up
+    static final int MIN_LENGTH = 8;
+
+    private static final int HORIZONTAL = 0;
+    private static final int VERTICAL = 1;
+
+    private final long width;
+    // A bit for every cell (row * width + column) which ends an indexed run, so that the other cells are turned away
+    // with one array read instead of a probe of the table. Null for maps too large for a flat grid and for sparse grids
+    // (whose memory shouldn't grow with the area of the map), they only have the table.
+    private final long[] ends;
+    // Slots hold the key + 1, so that zero can mark an empty slot
+    private long[] keys = new long[16];
+    private int[] otherEnds = new int[16];
+    private int size;
+
+    private SegmentIndex(int rows, int columns, boolean withEnds) {
+        this.width = columns;
+        long cells = (long) rows * columns;
+        this.ends = withEnds && cells <= FlatGrid.MAX_SIZE ? new long[(int) ((cells + 63) >>> 6)] : null;
+    }
+
+    // One pass over the rows, the runs of all columns are tracked at the same time
+    static SegmentIndex build(Grid grid) {
+        if(grid instanceof SparseGrid sparseGrid) return build(sparseGrid);
+
+        int rows = grid.rows();
+        int columns = grid.columns();
+        SegmentIndex index = new SegmentIndex(rows, columns, true);
+        int[] verticalStarts = new int[columns];
+        Arrays.fill(verticalStarts, -1);
+
+        for(int i = 0; i < rows; i++) {
+            int horizontalStart = -1;
+            for(int j = 0; j < columns; j++) {
+                if(isLine(grid.charAt(i, j))) {
+                    if(horizontalStart < 0) horizontalStart = j;
+                    if(verticalStarts[j] < 0) verticalStarts[j] = i;
+                } else {
+                    if(horizontalStart >= 0) index.addRun(HORIZONTAL, i, horizontalStart, j - 1);
+                    if(verticalStarts[j] >= 0) index.addRun(VERTICAL, j, verticalStarts[j], i - 1);
+                    horizontalStart = -1;
+                    verticalStarts[j] = -1;
+                }
+            }
+            if(horizontalStart >= 0) index.addRun(HORIZONTAL, i, horizontalStart, columns - 1);
+        }
+        for(int j = 0; j < columns; j++) {
+            if(verticalStarts[j] >= 0) index.addRun(VERTICAL, j, verticalStarts[j], rows - 1);
+        }
+        return index;
+    }
+
+    // Sparse grids are indexed from their stored cells only, instead of reading every cell of the area. Runs along a row are
+    // stored cells in consecutive columns, runs down a column are tracked in a list of the columns with an open run, which is
+    // sorted like the cells of a row and merged with them.
+    private static SegmentIndex build(SparseGrid grid) {
+        int rows = grid.rows();
+        SegmentIndex index = new SegmentIndex(rows, grid.columns(), false);
+        int[] openColumns = new int[16];
+        int[] openStarts = new int[16];
+        int open = 0;
+        int[] nextColumns = new int[16];
+        int[] nextStarts = new int[16];
+
+        for(int i = 0; i < rows; i++) {
+            int next = 0;
+            int o = 0;
+            int horizontalStart = -1;
+            int previousColumn = -1;
+            for(int cell = grid.rowStart(i); cell < grid.rowStart(i + 1); cell++) {
+                if(!isLine((char) (grid.cell(cell) & 0xFF))) continue;
+                int column = grid.columnOf(cell);
+                if(horizontalStart >= 0 && column != previousColumn + 1) {
+                    index.addRun(HORIZONTAL, i, horizontalStart, previousColumn);
+                    horizontalStart = -1;
+                }
+                if(horizontalStart < 0) horizontalStart = column;
+                previousColumn = column;
+
+                // Columns before this one with an open run don't continue in this row
+                while(o < open && openColumns[o] < column) {
+                    index.addRun(VERTICAL, openColumns[o], openStarts[o], i - 1);
+                    o++;
+                }
+                int verticalStart = i;
+                if(o < open && openColumns[o] == column) verticalStart = openStarts[o++];
+                if(next == nextColumns.length) {
+                    nextColumns = Arrays.copyOf(nextColumns, next * 2);
+                    nextStarts = Arrays.copyOf(nextStarts, next * 2);
+                }
+                nextColumns[next] = column;
+                nextStarts[next++] = verticalStart;
+            }
+            if(horizontalStart >= 0) index.addRun(HORIZONTAL, i, horizontalStart, previousColumn);
+            for(; o < open; o++) index.addRun(VERTICAL, openColumns[o], openStarts[o], i - 1);
+
+            int[] columns = openColumns;
+            int[] starts = openStarts;
+            openColumns = nextColumns;
+            openStarts = nextStarts;
+            open = next;
+            nextColumns = columns;
+            nextStarts = starts;
+        }
+        for(int o = 0; o < open; o++) index.addRun(VERTICAL, openColumns[o], openStarts[o], rows - 1);
+        return index;
+    }
+
+    private static boolean isLine(char character) {
+        int cellClass = Cells.classOf(character);
+        return cellClass == Cells.HORIZONTAL || cellClass == Cells.VERTICAL;
+    }
+
+    // A run on the line (row or column) from one coordinate along it to the other, both inclusive
+    private void addRun(int axis, int line, int from, int to) {
+        if(to - from + 1 < MIN_LENGTH) return;
+        put(key(axis, line, from), to);
+        put(key(axis, line, to), from);
+        if(ends != null) {
+            markEnd(axis == HORIZONTAL ? line * width + from : from * width + line);
+            markEnd(axis == HORIZONTAL ? line * width + to : to * width + line);
+        }
+    }
+
+    private void markEnd(long cell) {
+        ends[(int) (cell >>> 6)] |= 1L << cell;
+    }
+
+    // Far end (column when moving horizontally, row when moving vertically) of the run the cell starts in the direction of travel,
+    // -1 if the cell does not start a run going that way
+    int runEnd(int rowIndex, int columnIndex, int direction) {
+        if(ends != null) {
+            long cell = rowIndex * width + columnIndex;
+            if((ends[(int) (cell >>> 6)] & 1L << cell) == 0) return -1;
+        }
+        boolean horizontal = Cells.isHorizontal(direction);
+        int along = horizontal ? columnIndex : rowIndex;
+        int otherEnd = get(horizontal ? key(HORIZONTAL, rowIndex, columnIndex) : key(VERTICAL, columnIndex, rowIndex));
+        if(otherEnd < 0) return -1;
+        boolean forward = direction == Cells.FROM_LEFT || direction == Cells.FROM_ABOVE;
+        return (forward ? otherEnd > along : otherEnd < along) ? otherEnd : -1;
+    }
+
+    // Number of runs in the index
+    int size() {
+        return size / 2;
+    }
+
+    private long key(int axis, int line, int along) {
+        long cell = axis == HORIZONTAL ? line * width + along : along * width + line;
+        return (cell << 1 | axis) + 1;
+    }
+
+    private void put(long key, int otherEnd) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(keys[slot] != 0) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        otherEnds[slot] = otherEnd;
+        // Keeping the load factor at most 1/2 so probe sequences stay short
+        if(++size * 2 > keys.length) grow();
+    }
+
+    private int get(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(keys[slot] != 0) {
+            if(keys[slot] == key) return otherEnds[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldOtherEnds = otherEnds;
+        keys = new long[oldKeys.length * 2];
+        otherEnds = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] == 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while(keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            otherEnds[slot] = oldOtherEnds[i];
+        }
+    }
+
+    // Spreading neighbouring cells over the table (finalizer of MurmurHash3)
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
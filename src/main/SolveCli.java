@@ -0,0 +1,193 @@
+package main;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+// Command line solver for streams of maps. Maps are read from the files (or the standard input) one frame at a time,
+// solved on a pool of workers and written to the standard output as one line of JSON each, in the order they were read:
+// {"map":0,"Letters":"...","Path":"..."} or {"map":0,"error":"..."}, maps numbered from zero across all the inputs.
+// A map costs its parsing and its walk and nothing else: frames aren't copied out of the read chunks (see FrameReader),
+// workers keep their scratch buffers between maps (see PathSolver) and all output goes through one buffer.
+// At most WINDOW_PER_THREAD maps per worker are in flight, so memory stays bounded however long the stream is.
+public final class SolveCli {
+
+    public static final int WINDOW_PER_THREAD = 4;
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private SolveCli() {
+    }
+
+    public enum Framing {
+        // Maps separated by one or more blank lines, so a map can't have empty rows
+        BLANK_LINE,
+        // Every map preceded by a line with its length in bytes
+        LENGTH_PREFIXED
+    }
+
+    // Usage: SolveCli [--framing=blank|length] [--threads=N] [file...], no file or "-" reads the standard input
+    public static void main(String[] args) throws IOException {
+        Framing framing = Framing.BLANK_LINE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<ReadableByteChannel> inputs = new ArrayList<>();
+        for(String arg : args) {
+            if(arg.startsWith("--framing=")) {
+                switch(arg.substring("--framing=".length())) {
+                    case "blank" -> framing = Framing.BLANK_LINE;
+                    case "length" -> framing = Framing.LENGTH_PREFIXED;
+                    default -> exitWithUsage("Unknown framing " + arg);
+                }
+            } else if(arg.startsWith("--threads=")) {
+                try {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if(threads <= 0) exitWithUsage("Invalid number of threads " + arg);
+            } else if(arg.startsWith("--")) {
+                exitWithUsage("Unknown option " + arg);
+            } else {
+                inputs.add(arg.equals("-") ? new FileInputStream(FileDescriptor.in).getChannel() : FileChannel.open(Path.of(arg)));
+            }
+        }
+        if(inputs.isEmpty()) inputs.add(new FileInputStream(FileDescriptor.in).getChannel());
+
+        try(FileChannel output = new FileOutputStream(FileDescriptor.out).getChannel()) {
+            Stats stats = run(inputs, framing, output, threads);
+            System.err.println(stats);
+        } catch (InvalidInputException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            for(ReadableByteChannel input : inputs) input.close();
+        }
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: SolveCli [--framing=blank|length] [--threads=N] [file...]");
+        System.exit(2);
+    }
+
+    // Solving every map of the inputs (read one after the other) on the given number of workers, writing the results in order.
+    // The output is flushed but not closed. Fails with InvalidInputException on a frame which can't be read, the results of
+    // the maps before it are written first.
+    public static Stats run(List<? extends ReadableByteChannel> inputs, Framing framing, WritableByteChannel output, int threads) throws IOException {
+        long start = System.nanoTime();
+        PathSolver solver = new PathSolver();
+        ForkJoinPool workers = new ForkJoinPool(threads);
+        ArrayDeque<CompletableFuture<Solved>> inFlight = new ArrayDeque<>();
+        Output out = new Output(output);
+        long maps = 0;
+        long bytes = 0;
+        try {
+            for(ReadableByteChannel input : inputs) {
+                FrameReader reader = new FrameReader(input, framing == Framing.LENGTH_PREFIXED);
+                while(true) {
+                    FrameReader.Frame frame;
+                    try {
+                        frame = reader.next();
+                    } catch (InvalidInputException e) {
+                        // The maps read so far are still solved and written
+                        while(!inFlight.isEmpty()) out.write(inFlight.poll().join());
+                        throw new InvalidInputException("Invalid map " + maps + ": " + e.getMessage());
+                    }
+                    if(frame == null) break;
+
+                    long map = maps++;
+                    bytes += frame.length();
+                    inFlight.add(CompletableFuture.supplyAsync(() -> solve(solver, map, frame), workers));
+                    if(inFlight.size() >= WINDOW_PER_THREAD * threads) out.write(inFlight.poll().join());
+                }
+            }
+            while(!inFlight.isEmpty()) out.write(inFlight.poll().join());
+        } finally {
+            workers.shutdownNow();
+            out.flush();
+        }
+        return new Stats(maps, out.failed, bytes, System.nanoTime() - start);
+    }
+
+    private static Solved solve(PathSolver solver, long map, FrameReader.Frame frame) {
+        SolveResult result = solver.solve(Grids.parse(frame.bytes(), frame.offset(), frame.length()));
+        return new Solved(Json.line(map, result).getBytes(StandardCharsets.UTF_8), result.isSuccess());
+    }
+
+    // JSON line of a map and whether it was solved
+    private record Solved(byte[] line, boolean success) {
+    }
+
+    // The lines of the results gathered in one buffer, written whenever it's full
+    private static final class Output {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        private long failed;
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(Solved solved) throws IOException {
+            if(!solved.success()) failed++;
+            byte[] line = solved.line();
+            if(line.length > buffer.remaining()) flush();
+            if(line.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(line));
+            } else {
+                buffer.put(line);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while(bytes.hasRemaining()) channel.write(bytes);
+        }
+    }
+
+    // A frame of the input which isn't a map: a length prefix which isn't one, a truncated or a too large map
+    public static final class InvalidInputException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public InvalidInputException(String message) {
+            super(message);
+        }
+    }
+
+    // Maps solved (failed counts those rejected with an error), bytes of the maps and the time it all took
+    public record Stats(long maps, long failed, long bytes, long nanos) {
+
+        public double mapsPerSecond() {
+            return nanos > 0 ? maps * 1e9 / nanos : 0;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos > 0 ? bytes * 1e3 / nanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d maps (%d failed), %d bytes in %.3f s: %.0f maps/s, %.1f MB/s",
+                    maps, failed, bytes, nanos / 1e9, mapsPerSecond(), megabytesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package main;
+
+// Why and where a map was rejected: the cell the error was found at and the index of its step in the Path.
+// Errors found while scanning for the start and end positions have no step (-1),
+// a missing position has no cell either (-1, -1).
+public record SolveError(ErrorKind kind, int row, int column, long step) {
+
+    public String message() {
+        return kind.message();
+    }
+
+    // The error the throwing API rejects the map with
+    public Error toError() {
+        return new Error(kind.message());
+    }
+}
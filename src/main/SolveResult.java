@@ -0,0 +1,38 @@
+package main;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Result of following the path without throwing: either Letters and Path, or the error the map was rejected with.
+// A traversal stopped by its budget (or cancelled) keeps the letters it collected so far as its progress,
+// the step it got to is in the error. Letters of other failures are null.
+public record SolveResult(String letters, String path, SolveError error) {
+
+    public static SolveResult success(String letters, String path) {
+        return new SolveResult(letters, path, null);
+    }
+
+    public static SolveResult failure(SolveError error) {
+        return new SolveResult(null, null, error);
+    }
+
+    // Result of a traversal which collected the letters and the path, and ended with the error (null if it reached the end)
+    static SolveResult of(CharSequence letters, CharSequence path, SolveError error) {
+        if(error == null) return success(letters.toString(), path.toString());
+        if(error.kind() == ErrorKind.BUDGET_EXCEEDED || error.kind() == ErrorKind.CANCELLED) return new SolveResult(letters.toString(), null, error);
+        return failure(error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    // The Letters/Path map returned by FollowPath.start(), throwing the error if the map was rejected
+    public Map<String, String> orThrow() {
+        if(error != null) throw error.toError();
+        Map<String, String> result = new HashMap<>();
+        result.put("Letters", letters);
+        result.put("Path", path);
+        return result;
+    }
+}
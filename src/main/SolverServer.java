@@ -0,0 +1,106 @@
+package main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+// Local HTTP service solving maps: POST /solve with the raw map as the body, Letters/Path (or the error) come back as JSON.
+// Every request runs on its own virtual thread, at most maxConcurrentRequests are solved at once and the rest are turned away with 503.
+// Connections are kept alive, so clients can send (and pipeline) many requests over one connection.
+public final class SolverServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    private SolverServer(HttpServer server, ExecutorService executor, int maxConcurrentRequests) {
+        this.server = server;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    public static SolverServer start(InetSocketAddress address, int maxConcurrentRequests) throws IOException {
+        HttpServer httpServer = HttpServer.create(address, 0);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+        SolverServer solverServer = new SolverServer(httpServer, executor, maxConcurrentRequests);
+        httpServer.createContext("/solve", solverServer::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return solverServer;
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try(exchange) {
+            if(!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, Json.error("Only POST is supported"));
+                return;
+            }
+            if(!permits.tryAcquire()) {
+                respond(exchange, 503, Json.error("Too many concurrent requests"));
+                return;
+            }
+            try {
+                byte[] body = readBody(exchange.getRequestBody());
+                if(body == null) {
+                    respond(exchange, 413, Json.error("Map is too large"));
+                    return;
+                }
+                FollowPath followPath = new FollowPath();
+                followPath.setGrid(Grids.parse(body, 0, body.length));
+                SolveResult result = followPath.tryStart();
+                if(result.isSuccess()) {
+                    respond(exchange, 200, Json.result(result.letters(), result.path()));
+                } else {
+                    respond(exchange, 422, Json.error(result.error().message()));
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static byte[] readBody(InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(MAX_BODY_SIZE);
+        return body.read() == -1 ? bytes : null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // Usage: SolverServer [port] [maxConcurrentRequests]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxConcurrentRequests = args.length > 1 ? Integer.parseInt(args[1]) : 4 * Runtime.getRuntime().availableProcessors();
+        SolverServer server = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxConcurrentRequests);
+        System.out.println("Solving maps on http://" + server.address().getHostString() + ":" + server.address().getPort() + "/solve");
+    }
+}
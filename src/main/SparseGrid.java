@@ -0,0 +1,133 @@
+package main;
+
+import java.util.Arrays;
+
+// Grid storing only the non-space cells, for maps which are mostly empty: every row keeps the sorted columns of its cells,
+// all rows packed into shared arrays (compressed sparse rows). Memory grows with the number of path cells instead of the
+// area of the map, at the cost of a binary search within the row for every cell read.
+final class SparseGrid implements Grid {
+
+    private final int rows;
+    private final int columns;
+    // Cells of row i are at [rowStarts[i], rowStarts[i + 1])
+    private final int[] rowStarts;
+    private final int[] cellColumns;
+    private final byte[] cells;
+
+    private SparseGrid(int rows, int columns, int[] rowStarts, int[] cellColumns, byte[] cells) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStarts = rowStarts;
+        this.cellColumns = cellColumns;
+        this.cells = cells;
+    }
+
+    static SparseGrid of(char[][] map) {
+        int columns = 0;
+        int count = 0;
+        for(char[] row : map) {
+            columns = Math.max(columns, row.length);
+            for(char cell : row) if(cell != ' ') count++;
+        }
+
+        int[] rowStarts = new int[map.length + 1];
+        int[] cellColumns = new int[count];
+        byte[] cells = new byte[count];
+        int n = 0;
+        for(int i = 0; i < map.length; i++) {
+            rowStarts[i] = n;
+            for(int j = 0; j < map[i].length; j++) {
+                if(map[i][j] == ' ') continue;
+                cellColumns[n] = j;
+                cells[n++] = FlatGrid.toByte(map[i][j]);
+            }
+        }
+        rowStarts[map.length] = n;
+        return new SparseGrid(map.length, columns, rowStarts, cellColumns, cells);
+    }
+
+    // Parsing ASCII map lines ("\n" or "\r\n" separated), the blanks are skipped right away
+    static SparseGrid parse(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int rows = 0;
+        int count = 0;
+        for(int lineStart = offset; lineStart < end; rows++) {
+            int lineEnd = FlatGrid.lineEnd(bytes, lineStart, end);
+            int rowLength = lineEnd - lineStart - (lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? 1 : 0);
+            for(int i = lineStart; i < lineStart + rowLength; i++) if(bytes[i] != ' ') count++;
+            lineStart = lineEnd + 1;
+        }
+
+        int[] rowStarts = new int[rows + 1];
+        int[] cellColumns = new int[count];
+        byte[] cells = new byte[count];
+        int columns = 0;
+        int n = 0;
+        for(int row = 0, lineStart = offset; row < rows; row++) {
+            int lineEnd = FlatGrid.lineEnd(bytes, lineStart, end);
+            int rowLength = lineEnd - lineStart - (lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? 1 : 0);
+            columns = Math.max(columns, rowLength);
+            rowStarts[row] = n;
+            for(int j = 0; j < rowLength; j++) {
+                if(bytes[lineStart + j] == ' ') continue;
+                cellColumns[n] = j;
+                cells[n++] = bytes[lineStart + j];
+            }
+            lineStart = lineEnd + 1;
+        }
+        rowStarts[rows] = n;
+        return new SparseGrid(rows, columns, rowStarts, cellColumns, cells);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    // All rows are as wide as the widest row
+    @Override
+    public int rowLength(int rowIndex) {
+        return columns;
+    }
+
+    @Override
+    public char charAt(int rowIndex, int columnIndex) {
+        if(rowIndex < 0 || rowIndex >= rows) return ' ';
+        int cell = Arrays.binarySearch(cellColumns, rowStarts[rowIndex], rowStarts[rowIndex + 1], columnIndex);
+        return cell >= 0 ? (char) (cells[cell] & 0xFF) : ' ';
+    }
+
+    // Number of non-space cells
+    int cellCount() {
+        return cells.length;
+    }
+
+    int rowStart(int rowIndex) {
+        return rowStarts[rowIndex];
+    }
+
+    int columnOf(int cell) {
+        return cellColumns[cell];
+    }
+
+    byte cell(int cell) {
+        return cells[cell];
+    }
+
+    // Hashing only the stored cells, with their columns and the row boundaries
+    GridKey key() {
+        GridKey.Hasher hasher = new GridKey.Hasher();
+        for(int i = 0; i < rows; i++) {
+            hasher.add(~(long) rowStarts[i + 1]);
+            for(int cell = rowStarts[i]; cell < rowStarts[i + 1]; cell++) {
+                hasher.add((long) cellColumns[cell] << 8 | cells[cell] & 0xFF);
+            }
+        }
+        return hasher.key(rows, columns);
+    }
+}
@@ -0,0 +1,293 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+// Grid read from an ASCII map file in square tiles which are loaded on demand, for maps that don't fit into memory.
+// At most maxTiles tiles are kept, the least recently used one is evicted first. When the path moves into a tile that
+// was not loaded, the next tile in the same direction is read in the background, so a long straight run rarely waits for the disk.
+// Apart from the tiles only the line index (12 bytes per row) is kept in memory. Scans over the whole map (for the start
+// markers or the content hash) don't go through the tiles but read the file straight through, see forEachRow.
+public final class TiledGrid implements Grid, AutoCloseable {
+
+    private static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final long[] lineStarts;
+    private final int[] rowLengths;
+    private final int rows;
+    private final int columns;
+    private final int tileShift;
+    private final int tileMask;
+    private final int tileRows;
+    private final int tileColumns;
+
+    private final Map<Long, CompletableFuture<byte[]>> tiles;
+    private final ExecutorService prefetcher = VirtualThreads.newThreadPerTaskExecutor();
+    private long hits;
+    private long misses;
+    private long prefetches;
+    private long evictions;
+    private long bytesRead;
+
+    // The two tiles read last, most lookups hit them without touching the cache (also when reading neighbours across a tile edge).
+    // Tiles are immutable, so threads sharing the grid at worst see an older tile and look it up again.
+    private Tile current;
+    private Tile previous;
+
+    private TiledGrid(FileChannel channel, LineIndex index, int tileShift, int maxTiles) {
+        this.channel = channel;
+        this.lineStarts = index.lineStarts;
+        this.rowLengths = index.rowLengths;
+        this.rows = index.rows;
+        this.columns = index.columns;
+        this.tileShift = tileShift;
+        this.tileMask = (1 << tileShift) - 1;
+        this.tileRows = (rows + tileMask) >>> tileShift;
+        this.tileColumns = (columns + tileMask) >>> tileShift;
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<byte[]>> eldest) {
+                if(size() <= maxTiles) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // Tiles are tileSize x tileSize cells (a power of two), the memory used by the tiles is bounded by maxTiles * tileSize^2 bytes
+    public static TiledGrid open(Path file, int tileSize, int maxTiles) throws IOException {
+        if(tileSize < 8 || Integer.bitCount(tileSize) != 1) throw new IllegalArgumentException("Tile size has to be a power of two, at least 8");
+        // The current tile, its neighbour across an edge and the prefetched one
+        if(maxTiles < 3) throw new IllegalArgumentException("At least 3 tiles have to fit into the cache");
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new TiledGrid(channel, LineIndex.build(channel), Integer.numberOfTrailingZeros(tileSize), maxTiles);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int rowLength(int rowIndex) {
+        return rowLengths[rowIndex];
+    }
+
+    @Override
+    public char charAt(int rowIndex, int columnIndex) {
+        if(rowIndex < 0 || rowIndex >= rows || columnIndex < 0 || columnIndex >= rowLengths[rowIndex]) return ' ';
+        int tileRow = rowIndex >>> tileShift;
+        int tileColumn = columnIndex >>> tileShift;
+        long key = (long) tileRow * tileColumns + tileColumn;
+
+        Tile tile = current;
+        if(tile == null || tile.key != key) {
+            tile = previous;
+            if(tile != null && tile.key == key) {
+                previous = current;
+                current = tile;
+            } else {
+                tile = enter(key, tileRow, tileColumn);
+            }
+        }
+        return (char) (tile.cells[(rowIndex & tileMask) << tileShift | columnIndex & tileMask] & 0xFF);
+    }
+
+    // Moving to a tile other than the last two: looking it up in the cache (or loading it) and prefetching the next one
+    private Tile enter(long key, int tileRow, int tileColumn) {
+        CompletableFuture<byte[]> cells;
+        boolean loaded;
+        synchronized(tiles) {
+            cells = tiles.get(key);
+            loaded = cells != null;
+            if(loaded) {
+                hits++;
+            } else {
+                misses++;
+                cells = new CompletableFuture<>();
+                tiles.put(key, cells);
+            }
+        }
+        if(!loaded) load(key, tileRow, tileColumn, cells);
+
+        Tile last = current;
+        Tile tile = new Tile(key, join(cells));
+        previous = last;
+        current = tile;
+
+        // The direction of travel is the direction from the last tile to this one
+        if(last != null) {
+            int rowStep = Integer.signum(tileRow - (int) (last.key / tileColumns));
+            int columnStep = Integer.signum(tileColumn - (int) (last.key % tileColumns));
+            if((rowStep == 0) != (columnStep == 0)) prefetch(tileRow + rowStep, tileColumn + columnStep);
+        }
+        return tile;
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> cells) {
+        try {
+            return cells.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof UncheckedIOException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void prefetch(int tileRow, int tileColumn) {
+        if(tileRow < 0 || tileRow >= tileRows || tileColumn < 0 || tileColumn >= tileColumns) return;
+        long key = (long) tileRow * tileColumns + tileColumn;
+        CompletableFuture<byte[]> cells;
+        synchronized(tiles) {
+            if(tiles.containsKey(key)) return;
+            cells = new CompletableFuture<>();
+            tiles.put(key, cells);
+            prefetches++;
+        }
+        prefetcher.execute(() -> load(key, tileRow, tileColumn, cells));
+    }
+
+    // Reading the part of every row that falls into the tile, cells past the end of a row stay empty
+    private void load(long key, int tileRow, int tileColumn, CompletableFuture<byte[]> result) {
+        int tileSize = 1 << tileShift;
+        byte[] cells = new byte[tileSize * tileSize];
+        Arrays.fill(cells, (byte) ' ');
+        try {
+            int firstRow = tileRow << tileShift;
+            int firstColumn = tileColumn << tileShift;
+            long read = 0;
+            for(int i = 0; i < tileSize && firstRow + i < rows; i++) {
+                int length = Math.min(tileSize, rowLengths[firstRow + i] - firstColumn);
+                if(length <= 0) continue;
+                if(read(cells, i << tileShift, length, lineStarts[firstRow + i] + firstColumn) < length) {
+                    throw new IOException("Map file is shorter than its line index");
+                }
+                read += length;
+            }
+            synchronized(tiles) {
+                bytesRead += read;
+            }
+            result.complete(cells);
+        } catch (IOException e) {
+            // Not keeping the failed tile, the next lookup tries to read it again
+            synchronized(tiles) {
+                tiles.remove(key, result);
+            }
+            result.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    // Reading up to length bytes of the file at the position into the array, fewer only at the end of the file
+    private int read(byte[] bytes, int offset, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while(buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if(read < 0) break;
+            position += read;
+        }
+        return buffer.position() - offset;
+    }
+
+    // Visiting every row in order, reading the file straight through in large chunks. Going through the tiles row by row
+    // would read every tile once per row whenever a band of tiles doesn't fit into the cache. Stops when the visitor returns false.
+    void forEachRow(RowVisitor visitor) {
+        byte[] chunk = new byte[SCAN_CHUNK_SIZE];
+        long chunkStart = 0;
+        int chunkLength = 0;
+        long read = 0;
+        try {
+            for(int row = 0; row < rows; row++) {
+                long lineStart = lineStarts[row];
+                int length = rowLengths[row];
+                if(lineStart + length > chunkStart + chunkLength) {
+                    // The part of the row at the end of the chunk moves to the front of the next one instead of being read again
+                    int kept = (int) Math.max(0, chunkStart + chunkLength - lineStart);
+                    byte[] next = length > chunk.length ? new byte[length] : chunk;
+                    System.arraycopy(chunk, chunkLength - kept, next, 0, kept);
+                    chunk = next;
+                    chunkStart = lineStart;
+                    int added = read(chunk, kept, chunk.length - kept, lineStart + kept);
+                    read += added;
+                    chunkLength = kept + added;
+                    if(chunkLength < length) throw new IOException("Map file is shorter than its line index");
+                }
+                if(!visitor.row(row, chunk, (int) (lineStart - chunkStart), length)) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized(tiles) {
+                bytesRead += read;
+            }
+        }
+    }
+
+    // Content hash of the map, the same as the one of GridKey.of for any grid read through charAt
+    GridKey key() {
+        GridKey.Hasher hasher = new GridKey.Hasher();
+        forEachRow((row, bytes, offset, length) -> {
+            for(int i = offset; i < offset + length; i++) hasher.add(bytes[i] & 0xFF);
+            for(int j = length; j < columns; j++) hasher.add(' ');
+            return true;
+        });
+        return hasher.key(rows, columns);
+    }
+
+    public Stats stats() {
+        synchronized(tiles) {
+            return new Stats(hits, misses, prefetches, evictions, tiles.size(), bytesRead);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Not interrupting the prefetching threads, an interrupted read would close the channel under a running traversal
+        prefetcher.shutdown();
+        channel.close();
+    }
+
+    // Lookups of tiles other than the last two read, a hit is a tile which was still cached or had been prefetched.
+    // Every miss and every prefetch loads a tile from the file, bytesRead counts the bytes of the map file read for the tiles
+    // and the scans.
+    public record Stats(long hits, long misses, long prefetches, long evictions, int tiles, long bytesRead) {
+
+        public long loads() {
+            return misses + prefetches;
+        }
+
+        // Share of the lookups which didn't cost a load: a prefetched tile was loaded for the lookup it serves
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : Math.max(0, (double) (lookups - loads()) / lookups);
+        }
+    }
+
+    // A row of the map, the bytes [offset, offset + length) of the array without the line break
+    interface RowVisitor {
+        boolean row(int rowIndex, byte[] bytes, int offset, int length);
+    }
+
+    private record Tile(long key, byte[] cells) {
+    }
+}
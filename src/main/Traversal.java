@@ -0,0 +1,257 @@
+package main;
+
+import static main.Cells.FROM_ABOVE;
+import static main.Cells.FROM_BELOW;
+import static main.Cells.FROM_LEFT;
+import static main.Cells.FROM_RIGHT;
+
+// Walking the path with a loop instead of recursion, so the path length is not limited by the stack size.
+// Position and direction are kept in primitive locals, nothing is allocated per step.
+// Invalid maps are reported by returning the error instead of throwing it, null means the end was reached.
+final class Traversal {
+
+    // Results of decide() other than a direction: the path ends on a letter with nowhere to go,
+    // or the only non empty neighbour is the one we came from (a broken path, found before the cell is looked at any further)
+    static final int PATH_ENDS = 4;
+    static final int DEAD_END = 5;
+
+    static final ErrorKind[] ERROR_KINDS = ErrorKind.values();
+
+    private Traversal() {
+    }
+
+    // Following the path from the starting position
+    static SolveError walk(Grid grid, int rowIndex, int columnIndex, PathSink sink) {
+        // Tracking letters at specific index, to not collect the same letter twice
+        return walk(grid, rowIndex, columnIndex, null, new VisitedCells(), sink, null, null);
+    }
+
+    // Straight runs in the segment index (if any) are jumped over.
+    // Counters (if any) are added to when the traversal ends, also when it ends with an error.
+    // Without a budget the traversal still ends on every map, a path running in a circle is found within a few laps.
+    static SolveError walk(Grid grid, int rowIndex, int columnIndex, SegmentIndex segments, VisitedCells letterIndexes, PathSink sink,
+                           TraversalCounters counters, TraversalBudget budget) {
+        int direction = startDirection(grid, rowIndex, columnIndex);
+        if(direction < 0) return new SolveError(ERROR_KINDS[-1 - direction], rowIndex, columnIndex, 0);
+        sink.step(grid.charAt(rowIndex, columnIndex), rowIndex, columnIndex);
+        if(counters != null) counters.steps++;
+
+        return follow(grid, nextRow(rowIndex, direction), nextColumn(columnIndex, direction), direction, 1, segments, letterIndexes, sink, counters, budget);
+    }
+
+    // Direction of the first step from the starting position, or -1 - ordinal of the error
+    static int startDirection(Grid grid, int rowIndex, int columnIndex) {
+        // Checking for multiple starting paths, the starting position has to offer exactly one way to go
+        int ways = surroundingWays(grid, rowIndex, columnIndex);
+        if(ways == 0) return error(ErrorKind.BROKEN_PATH);
+        if(Integer.bitCount(ways) > 1) return error(ErrorKind.MULTIPLE_STARTING_PATHS);
+
+        int direction = Integer.numberOfTrailingZeros(ways);
+        //                                           -
+        // Checking for these scenarios: |@ or @| or @ or @
+        //                                                -
+        if(Cells.entry(grid.charAt(nextRow(rowIndex, direction), nextColumn(columnIndex, direction)), direction) == 0) {
+            return error(ErrorKind.BROKEN_PATH);
+        }
+        return direction;
+    }
+
+    // Following the path from a cell we just entered coming from the direction, until the end.
+    // The cell is the given step of the path, letters in the visited set (cell index row * width + column) are not collected again.
+    static SolveError follow(Grid grid, int rowIndex, int columnIndex, int direction, long step,
+                             SegmentIndex segments, VisitedCells letterIndexes, PathSink sink, TraversalCounters counters, TraversalBudget budget) {
+        long width = grid.columns();
+        // Connectivity masks of a flat grid are used if they were built, otherwise the neighbours are read
+        byte[] masks = grid instanceof FlatGrid flatGrid ? flatGrid.builtConnectivity() : null;
+        // Counting in locals, so that counting costs next to nothing when nobody is interested
+        long steps = 0;
+        long crossings = 0;
+        long letters = 0;
+        long duplicateLetters = 0;
+        // Brent's cycle detection: the path only depends on the cell and the direction it is entered from,
+        // so coming back to the saved state means it runs in a circle. The saved state moves ever further ahead.
+        long firstState = state(rowIndex, columnIndex, direction);
+        long savedState = -1;
+        long savedStep = 0;
+        long power = 1;
+        long sinceSaved = 0;
+        long nextCheck = budget != null ? step : Long.MAX_VALUE;
+        // Whether the last cell stepped on was a line cell. Lines are passed straight through, so the current cell is then
+        // inside a run (or at its far end) and can't start one, which saves looking it up in the segment index.
+        boolean afterLine = false;
+
+        try {
+            while(true) {
+                long state = state(rowIndex, columnIndex, direction);
+                if(state == savedState) return cycle(grid, masks, firstState, step, step + steps - savedStep);
+                if(++sinceSaved == power) {
+                    savedState = state;
+                    savedStep = step + steps;
+                    power <<= 1;
+                    sinceSaved = 0;
+                }
+                if(step + steps >= nextCheck) {
+                    ErrorKind stop = budget.check(step + steps);
+                    if(stop != null) return new SolveError(stop, rowIndex, columnIndex, step + steps);
+                    nextCheck = TraversalBudget.nextCheck(budget, step + steps);
+                }
+
+                char currentChar = grid.charAt(rowIndex, columnIndex);
+                int cellClass = Cells.classOf(currentChar);
+
+                // Every cell of a straight run but the last has a line cell ahead, so it is passed straight through without looking around.
+                // The last one is stepped on as usual, as the path may turn or break after it.
+                boolean line = cellClass == Cells.HORIZONTAL || cellClass == Cells.VERTICAL;
+                if(segments != null && line && !afterLine) {
+                    int runEnd = segments.runEnd(rowIndex, columnIndex, direction);
+                    // Not jumping past the step at which the budget is checked next
+                    if(runEnd >= 0 && Math.abs(runEnd - (Cells.isHorizontal(direction) ? columnIndex : rowIndex)) < nextCheck - step - steps) {
+                        int lastRow = Cells.isHorizontal(direction) ? rowIndex : runEnd;
+                        int lastColumn = Cells.isHorizontal(direction) ? runEnd : columnIndex;
+                        while(rowIndex != lastRow || columnIndex != lastColumn) {
+                            sink.step(grid.charAt(rowIndex, columnIndex), rowIndex, columnIndex);
+                            steps++;
+                            rowIndex = nextRow(rowIndex, direction);
+                            columnIndex = nextColumn(columnIndex, direction);
+                        }
+                        afterLine = true;
+                        continue;
+                    }
+                }
+
+                sink.step(currentChar, rowIndex, columnIndex);
+                steps++;
+                afterLine = line;
+                if(cellClass == Cells.END) {
+                    // We reached the end successfully
+                    return null;
+                }
+
+                int next = decide(grid, masks, rowIndex, columnIndex, cellClass, direction);
+                if(next == DEAD_END) return new SolveError(ErrorKind.BROKEN_PATH, rowIndex, columnIndex, step + steps - 1);
+
+                if(cellClass == Cells.CROSSING) {
+                    crossings++;
+                } else if(cellClass == Cells.LETTER) {
+                    // If we came across the same letter twice (letter on the crossing) we won't collect it again
+                    if(letterIndexes.add(rowIndex * width + columnIndex)) {
+                        sink.letter(currentChar, rowIndex, columnIndex);
+                        letters++;
+                    } else {
+                        duplicateLetters++;
+                    }
+                }
+
+                if(next == PATH_ENDS) return null;
+                if(next < 0) return new SolveError(ERROR_KINDS[-1 - next], rowIndex, columnIndex, step + steps - 1);
+                direction = next;
+
+                rowIndex = nextRow(rowIndex, direction);
+                columnIndex = nextColumn(columnIndex, direction);
+            }
+        } finally {
+            if(counters != null) {
+                counters.steps += steps;
+                counters.crossings += crossings;
+                counters.letters += letters;
+                counters.duplicateLetters += duplicateLetters;
+            }
+        }
+    }
+
+    // The loop of follow() came back to a state after the given number of steps (a multiple of the length of the circle),
+    // the path is walked again from the first state without collecting anything to find where the circle starts.
+    // Both walks are bounded by the number of steps it took to find the circle.
+    static SolveError cycle(Grid grid, byte[] masks, long state, long step, long circleSteps) {
+        long ahead = state;
+        for(long i = 0; i < circleSteps; i++) ahead = advance(grid, masks, ahead);
+        while(state != ahead) {
+            state = advance(grid, masks, state);
+            ahead = advance(grid, masks, ahead);
+            step++;
+        }
+        return new SolveError(ErrorKind.CYCLE, (int) (state >>> 33), (int) (state >>> 2) & Integer.MAX_VALUE, step);
+    }
+
+    // Next state of a path which is known to go on from the state
+    private static long advance(Grid grid, byte[] masks, long state) {
+        int rowIndex = (int) (state >>> 33);
+        int columnIndex = (int) (state >>> 2) & Integer.MAX_VALUE;
+        int direction = decide(grid, masks, rowIndex, columnIndex, Cells.classOf(grid.charAt(rowIndex, columnIndex)), (int) state & 3);
+        return state(nextRow(rowIndex, direction), nextColumn(columnIndex, direction), direction);
+    }
+
+    // A cell of the path (never outside the map) and the direction it is entered from, packed into a long
+    static long state(int rowIndex, int columnIndex, int direction) {
+        return (long) rowIndex << 33 | (long) columnIndex << 2 | direction;
+    }
+
+    // Where the path goes from a cell (other than the end) entered coming from the direction: the next direction,
+    // PATH_ENDS, DEAD_END or -1 - ordinal of the error. Depends on the cell and its neighbours only.
+    // Connectivity masks (if any) belong to the grid, which is then a flat grid.
+    static int decide(Grid grid, byte[] masks, int rowIndex, int columnIndex, int cellClass, int direction) {
+        int connectivity = masks != null ? masks[((FlatGrid) grid).index(rowIndex, columnIndex)]
+                : Cells.connectivity(grid.charAt(rowIndex - 1, columnIndex), grid.charAt(rowIndex, columnIndex + 1),
+                        grid.charAt(rowIndex + 1, columnIndex), grid.charAt(rowIndex, columnIndex - 1));
+
+        // Filtering out the previous step as we don't want to go back, if there is no possible way around then the path is broken
+        int nonEmpty = connectivity & 0xF;
+        if((nonEmpty & ~(1 << Cells.opposite(direction))) == 0) return DEAD_END;
+
+        // Neighbours which can continue the path in the direction they lie in
+        int entries = connectivity >>> 4 & 0xF;
+        int straight = 1 << direction;
+        int validTurns = entries & Cells.turns(direction);
+        int moves = Cells.moves(cellClass, direction);
+
+        switch (cellClass) {
+            // If we came from left we go right (from above we go down) and vice versa
+            case Cells.HORIZONTAL, Cells.VERTICAL -> {
+                if(validTurns == 0 && (nonEmpty & straight) == 0) return error(ErrorKind.BROKEN_PATH);
+                return direction;
+            }
+            // If we came from left or right we go either above or down, and vice versa
+            case Cells.CROSSING -> {
+                int candidates = moves & entries;
+                if(Integer.bitCount(candidates) > 1) return error(ErrorKind.FORK);
+                if(candidates == 0) return error(ErrorKind.FAKE_TURN);
+                return Integer.numberOfTrailingZeros(candidates);
+            }
+            case Cells.LETTER -> {
+                // Going straight if possible, otherwise turning to either side
+                if((moves & entries & straight) != 0) return direction;
+                int candidates = moves & entries & ~straight;
+                if(candidates == 0 && (nonEmpty & straight) != 0) return error(ErrorKind.BROKEN_PATH);
+                if(Integer.bitCount(candidates) > 1) {
+                    return error(Cells.isHorizontal(direction) ? ErrorKind.FORK_AFTER_HORIZONTAL_LETTER : ErrorKind.FORK);
+                }
+                // Nowhere to turn, the path ends at this letter
+                if(candidates == 0) return PATH_ENDS;
+                return Integer.numberOfTrailingZeros(candidates);
+            }
+            default -> {
+                return error(ErrorKind.UNRECOGNIZED_CHARACTER);
+            }
+        }
+    }
+
+    private static int error(ErrorKind kind) {
+        return -1 - kind.ordinal();
+    }
+
+    // Directions (as bit masks) of the non empty cells around the position
+    private static int surroundingWays(Grid grid, int rowIndex, int columnIndex) {
+        return (grid.charAt(rowIndex, columnIndex + 1) != ' ' ? 1 << FROM_LEFT : 0) | (grid.charAt(rowIndex, columnIndex - 1) != ' ' ? 1 << FROM_RIGHT : 0)
+                | (grid.charAt(rowIndex + 1, columnIndex) != ' ' ? 1 << FROM_ABOVE : 0) | (grid.charAt(rowIndex - 1, columnIndex) != ' ' ? 1 << FROM_BELOW : 0);
+    }
+
+    // Getting the row of the next step, moving away from the direction we came from
+    static int nextRow(int rowIndex, int direction) {
+        return direction == FROM_ABOVE ? rowIndex + 1 : direction == FROM_BELOW ? rowIndex - 1 : rowIndex;
+    }
+
+    // Getting the column of the next step, moving away from the direction we came from
+    static int nextColumn(int columnIndex, int direction) {
+        return direction == FROM_LEFT ? columnIndex + 1 : direction == FROM_RIGHT ? columnIndex - 1 : columnIndex;
+    }
+}
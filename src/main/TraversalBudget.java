@@ -0,0 +1,85 @@
+package main;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+// Limits of a single traversal: the number of steps of the path, the time it may take, and whether anybody still wants its result.
+// The step budget is checked exactly, the clock and the cancellation only every CHECK_INTERVAL steps (and at the first step)
+// so that reading them costs next to nothing.
+final class TraversalBudget {
+
+    static final int CHECK_INTERVAL = 4096;
+
+    private final long maxSteps;
+    private final long deadline;
+    private final boolean timed;
+    // The traversal is cancelled once this is done, e.g. the future of an asynchronous solve cancelled by its caller
+    private final Future<?> cancellation;
+
+    private TraversalBudget(long maxSteps, long deadline, boolean timed, Future<?> cancellation) {
+        this.maxSteps = maxSteps;
+        this.deadline = deadline;
+        this.timed = timed;
+        this.cancellation = cancellation;
+    }
+
+    // A budget starting now, zero steps or a null time means no limit. Null if there is no limit at all.
+    static TraversalBudget of(long maxSteps, Duration maxTime) {
+        return of(maxSteps, maxTime, null, null);
+    }
+
+    // Same, also stopping at the deadline (whichever of the two times comes first) and when the cancellation is done, both may be null
+    static TraversalBudget of(long maxSteps, Duration maxTime, Instant deadline, Future<?> cancellation) {
+        if(maxSteps <= 0 && maxTime == null && deadline == null && cancellation == null) return null;
+        long steps = maxSteps > 0 ? maxSteps : Long.MAX_VALUE;
+
+        long now = System.nanoTime();
+        long end = 0;
+        boolean timed = false;
+        if(maxTime != null) {
+            end = now + toNanos(maxTime);
+            timed = true;
+        }
+        if(deadline != null) {
+            long deadlineEnd = now + nanosUntil(deadline);
+            if(!timed || deadlineEnd - end < 0) end = deadlineEnd;
+            timed = true;
+        }
+        return new TraversalBudget(steps, end, timed, cancellation);
+    }
+
+    // Nanoseconds from now until the deadline, zero for one which has passed
+    static long nanosUntil(Instant deadline) {
+        return toNanos(Duration.between(Instant.now(), deadline));
+    }
+
+    // Saturated at Long.MAX_VALUE for times too long to count in nanoseconds, e.g. until Instant.MAX, which stands for no deadline
+    private static long toNanos(Duration time) {
+        if(time.isNegative()) return 0;
+        try {
+            return time.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // Step (numbered from zero at '@') at which the budget has to be checked next, when it was checked at the given one
+    static long nextCheck(TraversalBudget budget, long step) {
+        if(budget == null) return Long.MAX_VALUE;
+        return budget.timed || budget.cancellation != null ? Math.min(budget.maxSteps, step + CHECK_INTERVAL) : budget.maxSteps;
+    }
+
+    // Why the path may not go on to the given step, null if it may
+    ErrorKind check(long step) {
+        if(step >= maxSteps) return ErrorKind.BUDGET_EXCEEDED;
+        if(cancellation != null && cancellation.isDone()) return ErrorKind.CANCELLED;
+        if(timed && System.nanoTime() - deadline >= 0) return ErrorKind.BUDGET_EXCEEDED;
+        return null;
+    }
+
+    // Steps of the path which may still be taken from the given step on
+    static long remainingSteps(TraversalBudget budget, long step) {
+        return budget == null ? Long.MAX_VALUE : budget.maxSteps - step;
+    }
+}
@@ -0,0 +1,10 @@
+package main;
+
+// What a traversal did, added up when it ends
+final class TraversalCounters {
+
+    long steps;
+    long crossings;
+    long letters;
+    long duplicateLetters;
+}
@@ -0,0 +1,40 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JDK Flight Recorder event for every FollowPath.start() call, recorded when the event is enabled in the recording settings
+@Name("main.Traversal")
+@Label("Path Traversal")
+@Category("FollowPath")
+@Description("Following the path of one map")
+final class TraversalEvent extends jdk.jfr.Event {
+
+    @Label("Steps")
+    long steps;
+
+    @Label("Crossings")
+    long crossings;
+
+    @Label("Letters")
+    long letters;
+
+    @Label("Duplicate Letters")
+    @Description("Letters passed again on a crossing, which are not collected twice")
+    long duplicateLetters;
+
+    @Label("Start Scan Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long startScanNanos;
+
+    @Label("Traversal Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long traversalNanos;
+
+    @Label("Error")
+    @Description("Kind of the error the map was rejected with, if it was")
+    String error;
+}
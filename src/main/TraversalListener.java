@@ -0,0 +1,8 @@
+package main;
+
+// Receives the statistics of every traversal of a FollowPath it is set on, see MetricsRecorder for aggregating them
+@FunctionalInterface
+public interface TraversalListener {
+
+    void onTraversal(TraversalStats stats);
+}
@@ -0,0 +1,10 @@
+package main;
+
+// Statistics of one FollowPath.start() call, error is the kind of the error the map was rejected with or null if the path was followed
+public record TraversalStats(long steps, long crossings, long letters, long duplicateLetters,
+                             long startScanNanos, long traversalNanos, ErrorKind error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,20 @@
+package main;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Virtual threads are still a preview feature on the JDK this project targets, so they are looked up reflectively
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // Starting a new virtual thread for each task, or a (cached) platform thread when virtual threads are not available
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package main;
+
+import java.util.Arrays;
+
+// Open-addressed set of cell indexes (row * width + column), used to not collect the same letter twice.
+// Memory grows with the number of cells added instead of with the size of the map, so sparse maps stay cheap.
+final class VisitedCells {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Slots hold cell index + 1, so that zero can mark an empty slot
+    private long[] slots = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // Adds the cell and returns true if it was not in the set before
+    boolean add(long cellIndex) {
+        long key = cellIndex + 1;
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+
+        while(slots[slot] != 0) {
+            if(slots[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = key;
+        // Keeping the load factor at most 1/2 so probe sequences stay short
+        if(++size * 2 > slots.length) grow();
+        return true;
+    }
+
+    boolean contains(long cellIndex) {
+        long key = cellIndex + 1;
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+
+        while(slots[slot] != 0) {
+            if(slots[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    // Removes the cell and returns true if it was in the set
+    boolean remove(long cellIndex) {
+        long key = cellIndex + 1;
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+
+        while(slots[slot] != 0) {
+            if(slots[slot] == key) {
+                // Shifting back the following keys of the probe sequence, so that no tombstones are needed
+                int hole = slot;
+                for(int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+                    int ideal = mix(slots[next]) & mask;
+                    if(((next - ideal) & mask) >= ((next - hole) & mask)) {
+                        slots[hole] = slots[next];
+                        hole = next;
+                    }
+                }
+                slots[hole] = 0;
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        slots = new long[oldSlots.length * 2];
+        int mask = slots.length - 1;
+
+        for(long key : oldSlots) {
+            if(key == 0) continue;
+            int slot = mix(key) & mask;
+            while(slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = key;
+        }
+    }
+
+    // Spreading neighbouring cell indexes over the table (finalizer of MurmurHash3)
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,67 @@
+package test;
+
+import main.BatchSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSolverTest {
+
+    private static final char[][] VALID_MAP = TestMaps.simple();
+
+    private static final char[][] INVALID_MAP = {
+            {'@', '-', 'A', '-', '+', '-', 'B', '-', 'x'},
+    };
+
+    private void testSolveAll(BatchSolver solver) {
+        List<char[][]> maps = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            maps.add(i % 3 == 0 ? INVALID_MAP : VALID_MAP);
+        }
+
+        List<BatchSolver.Outcome> outcomes = solver.solveAll(maps);
+
+        assertEquals(maps.size(), outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            BatchSolver.Outcome outcome = outcomes.get(i);
+            if (i % 3 == 0) {
+                assertFalse(outcome.isSuccess());
+                assertEquals("Invalid input, fake turn!", outcome.error());
+            } else {
+                assertTrue(outcome.isSuccess());
+                assertEquals(TestMaps.SIMPLE_LETTERS, outcome.result().get("Letters"));
+                assertEquals(TestMaps.SIMPLE_PATH, outcome.result().get("Path"));
+            }
+        }
+    }
+
+    @Test
+    public void testForkJoinSolver() {
+        try (BatchSolver solver = BatchSolver.forkJoin(4)) {
+            testSolveAll(solver);
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsSolver() {
+        try (BatchSolver solver = BatchSolver.virtualThreads()) {
+            testSolveAll(solver);
+        }
+    }
+
+    @Test
+    public void testExternalExecutorIsNotShutDown() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (BatchSolver solver = new BatchSolver(executor)) {
+            testSolveAll(solver);
+        }
+
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+}
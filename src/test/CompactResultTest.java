@@ -0,0 +1,57 @@
+package test;
+
+import main.CompactResult;
+import main.FollowPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactResultTest {
+
+    private static final char[][] MAP = TestMaps.simple();
+
+    private FollowPath followPath;
+
+    @BeforeEach
+    public void setUp() {
+        followPath = new FollowPath();
+        followPath.setMap(MAP);
+    }
+
+    @Test
+    public void testSameAsStart() {
+        CompactResult result = followPath.startCompact();
+
+        assertEquals(followPath.start(), result.toMap());
+        assertEquals(23, result.pathLength());
+    }
+
+    @Test
+    public void testRunsAndLetterPositions() {
+        CompactResult result = followPath.startCompact();
+
+        // @ --- A --- + | C | + --- + | + - B - x
+        assertEquals(17, result.runCount());
+        assertEquals('-', result.runCharacter(1));
+        assertEquals(3, result.runLength(1));
+        assertEquals(TestMaps.SIMPLE_LETTERS, result.letters());
+        assertEquals(2, result.letterRow(1));
+        assertEquals(8, result.letterColumn(1));
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        CompactResult result = followPath.startCompact();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        result.writeTo(new DataOutputStream(bytes));
+        CompactResult copy = CompactResult.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(result.toMap(), copy.toMap());
+        assertEquals(result.runCount(), copy.runCount());
+        assertEquals(result.letterColumn(2), copy.letterColumn(2));
+    }
+}
@@ -0,0 +1,76 @@
+package test;
+
+import main.EditableMap;
+import main.FollowPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EditableMapTest {
+
+    private Map<String, String> solveFully(char[][] map) {
+        FollowPath followPath = new FollowPath();
+        followPath.setMap(map);
+        return followPath.start();
+    }
+
+    @Test
+    public void testEditNearTheEndResumesLate() {
+        char[][] map = TestMaps.simple();
+        EditableMap editableMap = new EditableMap(map);
+        editableMap.solve();
+
+        // Replacing the '-' between B and x with a letter
+        map[2][1] = 'D';
+        editableMap.set(2, 1, 'D');
+        Map<String, String> result = editableMap.solve();
+
+        assertEquals(solveFully(map), result);
+        assertEquals("ACBD", result.get("Letters"));
+        assertEquals(20, editableMap.lastResumedStep());
+    }
+
+    @Test
+    public void testEditOfUntouchedCellDoesNotWalk() {
+        char[][] map = TestMaps.simple();
+        EditableMap editableMap = new EditableMap(map);
+        Map<String, String> first = editableMap.solve();
+
+        editableMap.set(0, 6, '-');
+        editableMap.set(4, 0, 'Z');
+
+        assertEquals(first, editableMap.solve());
+        assertEquals(-1, editableMap.lastResumedStep());
+    }
+
+    @Test
+    public void testEditBreakingThePath() {
+        EditableMap editableMap = new EditableMap(TestMaps.simple());
+        editableMap.solve();
+
+        editableMap.set(4, 6, ' ');
+        Error error = assertThrows(Error.class, editableMap::solve);
+
+        assertEquals("Invalid input, broken path!", error.getMessage());
+
+        editableMap.set(4, 6, '-');
+        assertEquals(TestMaps.SIMPLE_PATH, editableMap.solve().get("Path"));
+    }
+
+    @Test
+    public void testLettersBeforeTheEditAreNotCollectedAgain() {
+        char[][] map = TestMaps.goonies();
+        EditableMap editableMap = new EditableMap(map);
+        editableMap.solve();
+
+        map[6][12] = 'W';
+        editableMap.set(6, 12, 'W');
+        Map<String, String> result = editableMap.solve();
+
+        assertEquals("GOONIESW", result.get("Letters"));
+        assertEquals(solveFully(map), result);
+        assertTrue(editableMap.lastResumedStep() > 0);
+    }
+}
@@ -1,13 +1,22 @@
 package test;
 
+import main.ErrorKind;
 import main.FollowPath;
+import main.Grids;
+import main.PathSink;
+import main.Position;
+import main.SolveError;
+import main.SolveResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class FollowPathTest {
 
@@ -120,6 +129,64 @@ public class FollowPathTest {
         testCorrectPath(map, "AB", "@-A--+|+-B--x");
     }
 
+    @Test
+    public void testVeryLongPath() {
+        int length = 500_000;
+        char[][] map = new char[1][length];
+        Arrays.fill(map[0], '-');
+        map[0][0] = '@';
+        map[0][length / 2] = 'A';
+        map[0][length - 1] = 'x';
+
+        followPath.setMap(map);
+        Map<String, String> result = followPath.start();
+
+        assertEquals("A", result.get("Letters"));
+        assertEquals(new String(map[0]), result.get("Path"));
+    }
+
+    @Test
+    public void testLetterDensePath() {
+        // The same letters repeat at different positions, each of them has to be collected
+        int rows = 2_000;
+        char[][] map = new char[rows][3];
+        for (char[] row : map) Arrays.fill(row, ' ');
+        map[0][0] = '@';
+        map[0][1] = '-';
+        map[0][2] = '+';
+        StringBuilder expectedLetters = new StringBuilder();
+        for (int i = 1; i < rows - 1; i++) {
+            map[i][2] = (char) ('A' + i % 26);
+            expectedLetters.append(map[i][2]);
+        }
+        map[rows - 1][2] = 'x';
+
+        testCorrectPath(map, expectedLetters.toString(), "@-+" + expectedLetters + "x");
+    }
+
+    @Test
+    public void testStreamingToSink() {
+        char[][] map = TestMaps.simple();
+        StringWriter path = new StringWriter();
+        List<String> letters = new ArrayList<>();
+
+        followPath.setMap(map);
+        followPath.start(new PathSink() {
+            @Override
+            public void step(char character, int rowIndex, int columnIndex) {
+                path.write(character);
+            }
+
+            @Override
+            public void letter(char letter, int rowIndex, int columnIndex) {
+                letters.add(letter + Arrays.toString(new int[]{rowIndex, columnIndex}));
+            }
+        });
+
+        assertEquals(TestMaps.SIMPLE_PATH, path.toString());
+        assertEquals(List.of("A[0, 4]", "C[2, 8]", "B[2, 2]"), letters);
+    }
+
     /**
      * Testing invalid paths
      */
@@ -197,6 +264,226 @@ public class FollowPathTest {
         testWrongPath(map, "Invalid input, fake turn!");
     }
 
+    @Test
+    public void testTryStartReturnsErrorWithPosition() {
+        char[][] map = {
+                {'@', '-', 'A', '-', '+', '-', 'B', '-', 'x'},
+        };
+        followPath.setMap(map);
+
+        SolveResult result = followPath.tryStart();
+
+        assertFalse(result.isSuccess());
+        assertEquals(new SolveError(ErrorKind.FAKE_TURN, 0, 4, 4), result.error());
+        assertEquals("Invalid input, fake turn!", result.error().message());
+    }
+
+    @Test
+    public void testTryStartReturnsScanErrors() {
+        followPath.setMap(new char[][]{{'@', '-', '@', '-', 'x'}});
+        assertEquals(new SolveError(ErrorKind.TWO_STARTING_POSITIONS, 0, 2, -1), followPath.tryStart().error());
+
+        followPath.setMap(new char[][]{{'@', '-', 'A', '-', '+'}});
+        assertEquals(new SolveError(ErrorKind.MISSING_END_POSITION, -1, -1, -1), followPath.tryStart().error());
+    }
+
+    @Test
+    public void testTryStartReturnsResult() {
+        followPath.setMap(TestMaps.simple());
+
+        assertEquals(SolveResult.success(TestMaps.SIMPLE_LETTERS, TestMaps.SIMPLE_PATH), followPath.tryStart());
+    }
+
+    @Test
+    public void testAllRoutes() {
+        char[][] map = {
+                {'@', '-', 'A', '-', 'x', ' ', '@', '-', 'B', '-', '+'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '|'},
+                {'@', '-', '+', '-', 'x', ' ', 'x', '-', 'C', '-', '+'},
+        };
+        followPath.setMap(map);
+
+        Map<Position, SolveResult> routes = followPath.startAllRoutes();
+
+        assertEquals(List.of(new Position(0, 0), new Position(0, 6), new Position(2, 0)), new ArrayList<>(routes.keySet()));
+        assertEquals(SolveResult.success("A", "@-A-x"), routes.get(new Position(0, 0)));
+        assertEquals(SolveResult.success("BC", "@-B-+|+-C-x"), routes.get(new Position(0, 6)));
+        assertEquals(ErrorKind.FAKE_TURN, routes.get(new Position(2, 0)).error().kind());
+    }
+
+    @Test
+    public void testAllRoutesWithoutEnd() {
+        followPath.setMap(new char[][]{{'@', '-', 'A', ' ', '@', '-', 'B'}});
+
+        Map<Position, SolveResult> routes = followPath.startAllRoutes();
+
+        assertEquals(2, routes.size());
+        routes.values().forEach(result -> assertEquals(ErrorKind.MISSING_END_POSITION, result.error().kind()));
+    }
+
+    @Test
+    public void testSegmentIndex() {
+        char[][] map = {
+                {'@', '-', '-', '-', '-', '|', '-', '-', '-', '-', '+'},
+                {' ', ' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', 'x', '-', '-', '-', '-', '+'},
+        };
+        followPath.setSegmentIndex(true);
+
+        testCorrectPath(map, "", "@----|----+|||||+----x");
+
+        // Breaking the vertical run right before its last cell
+        map[5][10] = ' ';
+        followPath.setMap(map);
+        assertEquals(new SolveError(ErrorKind.BROKEN_PATH, 4, 10, 14), followPath.tryStart().error());
+    }
+
+    @Test
+    public void testConnectivityIndex() {
+        char[][] map = TestMaps.goonies();
+        followPath.setConnectivityIndex(true);
+
+        // Solving twice, the second time with the masks built by the first
+        testCorrectPath(map, TestMaps.GOONIES_LETTERS, TestMaps.GOONIES_PATH);
+        testCorrectPath(map, TestMaps.GOONIES_LETTERS, TestMaps.GOONIES_PATH);
+
+        // Without the way straight on, the path can go either up or down after the O
+        map[3][5] = ' ';
+        followPath.setMap(map);
+        assertEquals(new SolveError(ErrorKind.FORK_AFTER_HORIZONTAL_LETTER, 3, 4, 4), followPath.tryStart().error());
+    }
+
+    @Test
+    public void testBidirectional() {
+        char[][] map = TestMaps.goonies();
+        followPath.setBidirectional(true);
+
+        // Letters on crossings are passed twice, and only collected the first time
+        testCorrectPath(map, TestMaps.GOONIES_LETTERS, TestMaps.GOONIES_PATH);
+
+        // A second 'x' the path never reaches doesn't change anything
+        map[0][0] = 'x';
+        testCorrectPath(map, TestMaps.GOONIES_LETTERS, TestMaps.GOONIES_PATH);
+
+        // Errors are found where the forward walk finds them
+        map[3][5] = ' ';
+        followPath.setMap(map);
+        assertEquals(new SolveError(ErrorKind.FORK_AFTER_HORIZONTAL_LETTER, 3, 4, 4), followPath.tryStart().error());
+    }
+
+    @Test
+    public void testBidirectionalOnLongPath() {
+        followPath.setMap(TestMaps.serpentine(301));
+        SolveResult forward = followPath.tryStart();
+        assertTrue(forward.isSuccess());
+
+        followPath.setBidirectional(true);
+        for(int i = 0; i < 10; i++) {
+            assertEquals(forward, followPath.tryStart());
+        }
+
+        // Joining the backward walk's chain, also when the step budget runs out in the joined half
+        StringBuilder letters = new StringBuilder();
+        StringBuilder path = new StringBuilder();
+        assertNull(followPath.tryStart(heldAtFirstStep(letters, path)));
+        assertEquals(forward, SolveResult.success(letters.toString(), path.toString()));
+
+        followPath.setStepBudget(forward.path().length() - 10);
+        SolveError budgetExceeded = followPath.tryStart().error();
+        followPath.setBidirectional(false);
+        assertEquals(budgetExceeded, followPath.tryStart().error());
+        followPath.setBidirectional(true);
+        assertEquals(budgetExceeded, followPath.tryStart(heldAtFirstStep(new StringBuilder(), new StringBuilder())));
+    }
+
+    // Holding the forward walk at its first step, so that the backward walk covers the rest of the path before they meet
+    private static PathSink heldAtFirstStep(StringBuilder letters, StringBuilder path) {
+        PathSink sink = PathSink.of(letters, path);
+        return new PathSink() {
+            private boolean held;
+
+            @Override
+            public void step(char character, int rowIndex, int columnIndex) {
+                if(!held) {
+                    held = true;
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                sink.step(character, rowIndex, columnIndex);
+            }
+
+            @Override
+            public void steps(char[] characters, int offset, int length, int[] rowIndexes, int[] columnIndexes) {
+                sink.steps(characters, offset, length, rowIndexes, columnIndexes);
+            }
+
+            @Override
+            public void letter(char letter, int rowIndex, int columnIndex) {
+                sink.letter(letter, rowIndex, columnIndex);
+            }
+        };
+    }
+
+    @Test
+    public void testCycle() {
+        // Coming back to A from above, the path turns left and runs around the loop forever
+        char[][] map = {
+                {'+', '-', '+', ' ', ' ', 'x'},
+                {'|', ' ', '|', ' ', ' ', ' '},
+                {'+', '-', 'A', '|', '-', '@'},
+        };
+        SolveError cycle = new SolveError(ErrorKind.CYCLE, 2, 1, 4);
+
+        followPath.setMap(map);
+        assertEquals(cycle, followPath.tryStart().error());
+        Error error = assertThrows(Error.class, () -> followPath.start());
+        assertEquals("Invalid input, the path loops forever!", error.getMessage());
+
+        // Reported at the first cell of the circle however the path is followed
+        followPath.setSegmentIndex(true);
+        assertEquals(cycle, followPath.tryStart().error());
+        followPath.setSegmentIndex(false);
+        followPath.setBidirectional(true);
+        assertEquals(cycle, followPath.tryStart().error());
+    }
+
+    @Test
+    public void testStepBudget() {
+        char[][] map = TestMaps.goonies();
+        followPath.setStepBudget(10);
+
+        // Stopped at the eleventh step, after "@-G-O-+|+-"
+        StringBuilder path = new StringBuilder();
+        followPath.setMap(map);
+        assertEquals(new SolveError(ErrorKind.BUDGET_EXCEEDED, 5, 4, 10), followPath.tryStart(PathSink.of(new StringBuilder(), path)));
+        assertEquals("@-G-O-+|+-", path.toString());
+
+        // The whole path is 39 steps long
+        followPath.setStepBudget(39);
+        testCorrectPath(map, TestMaps.GOONIES_LETTERS, TestMaps.GOONIES_PATH);
+    }
+
+    @Test
+    public void testTimeBudget() {
+        followPath.setMap(TestMaps.serpentine(301));
+        followPath.setTimeBudget(Duration.ZERO);
+
+        // The clock is read every few thousand steps
+        SolveError error = followPath.tryStart().error();
+        assertEquals(ErrorKind.BUDGET_EXCEEDED, error.kind());
+        assertTrue(error.step() > 0 && error.step() < 301 * 151);
+
+        followPath.setTimeBudget(Duration.ofMinutes(1));
+        assertTrue(followPath.tryStart().isSuccess());
+    }
+
     /**
      * Testing class methods
      */
@@ -219,6 +506,60 @@ public class FollowPathTest {
         assertArrayEquals(startPosition, new int[]{5, 2});
     }
 
+    @Test
+    public void testGetStartingPositionOnEveryColumn() {
+        // Markers at every offset within the eight cells compared at once
+        for(int column = 0; column < 20; column++) {
+            char[][] map = new char[3][20];
+            for(char[] row : map) Arrays.fill(row, ' ');
+            map[1][column] = '@';
+            map[2][19 - column] = 'x';
+
+            followPath.setMap(map);
+            assertArrayEquals(new int[]{1, column}, followPath.getStartingPosition());
+        }
+    }
+
+    @Test
+    public void testGetStartingPositionOnLargeMap() {
+        // Large enough to be scanned in parallel chunks
+        char[][] map = new char[2100][2100];
+        for(char[] row : map) Arrays.fill(row, '-');
+        map[1700][3] = '@';
+        map[0][0] = 'x';
+
+        followPath.setMap(map);
+        assertArrayEquals(new int[]{1700, 3}, followPath.getStartingPosition());
+
+        map[2000][2099] = '@';
+        map[1900][5] = '@';
+        followPath.setMap(map);
+        assertEquals(new SolveError(ErrorKind.TWO_STARTING_POSITIONS, 1900, 5, -1), followPath.tryStart().error());
+
+        map[1900][5] = '-';
+        map[2000][2099] = '-';
+        map[0][0] = '-';
+        followPath.setMap(map);
+        assertEquals(ErrorKind.MISSING_END_POSITION, followPath.tryStart().error().kind());
+    }
+
+    @Test
+    public void testGetStartingPositionOnLargestFlatGrid() {
+        // A stride of 1000 cells and as many rows as fit, the last chunk of rows ends past Integer.MAX_VALUE.
+        // The grid takes 2 GB, so the test only runs with a heap large enough for it.
+        assumeTrue(Runtime.getRuntime().maxMemory() >= 3L << 30, "Needs a heap of 3 GB");
+        // Jagged, so that only the grid takes memory
+        char[][] map = new char[2_147_479][];
+        Arrays.fill(map, new char[0]);
+        map[0] = new char[996];
+        Arrays.fill(map[0], ' ');
+        map[map.length - 1] = new char[]{'@', '-', 'x'};
+
+        followPath.setGrid(Grids.flat(map));
+        assertArrayEquals(new int[]{2_147_478, 0}, followPath.getStartingPosition());
+        assertEquals(List.of(new Position(2_147_478, 0)), new ArrayList<>(followPath.startAllRoutes().keySet()));
+    }
+
     @Test
     public void testIsCharUpperCaseLetterMethod() {
         boolean isNotCharUpperCaseLetter = followPath.isCharUpperCaseLetter(']');
@@ -0,0 +1,154 @@
+package test;
+
+import main.FollowPath;
+import main.Grid;
+import main.Grids;
+import main.SolveResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridsTest {
+
+    // The map in the top left corner of a much larger empty area
+    private static char[][] mostlyEmpty() {
+        char[][] map = new char[50][50];
+        for(char[] row : map) Arrays.fill(row, ' ');
+        char[][] small = TestMaps.simple();
+        for(int i = 0; i < small.length; i++) System.arraycopy(small[i], 0, map[i], 0, small[i].length);
+        return map;
+    }
+
+    // The map in the top left corner of an empty area of 2^28 cells, jagged so that the empty rows take no memory
+    private static char[][] hugeAndMostlyEmpty() {
+        char[][] map = new char[1 << 14][];
+        Arrays.fill(map, new char[0]);
+        char[][] small = TestMaps.simple();
+        System.arraycopy(small, 0, map, 0, small.length);
+        map[0] = Arrays.copyOf(small[0], 1 << 14);
+        Arrays.fill(map[0], small[0].length, map[0].length, ' ');
+        return map;
+    }
+
+    // A short path in the corner of 50000 x 50000 cells, more than a flat grid can hold. Jagged like the one above.
+    private static char[][] tooLarge() {
+        char[][] map = new char[50_000][];
+        Arrays.fill(map, new char[0]);
+        map[0] = new char[50_000];
+        Arrays.fill(map[0], ' ');
+        map[0][0] = '@';
+        map[0][1] = '-';
+        map[0][2] = 'x';
+        return map;
+    }
+
+    private static Map<String, String> solve(Grid grid) {
+        FollowPath followPath = new FollowPath();
+        followPath.setGrid(grid);
+        return followPath.start();
+    }
+
+    @Test
+    public void testSelectionBySizeAndDensity() {
+        assertEquals("FlatGrid", Grids.of(TestMaps.simple()).getClass().getSimpleName());
+        // Sparse cell reads are slower, so only huge maps are kept sparse
+        assertEquals("FlatGrid", Grids.of(mostlyEmpty()).getClass().getSimpleName());
+        assertEquals("SparseGrid", Grids.of(hugeAndMostlyEmpty()).getClass().getSimpleName());
+        assertEquals("SparseGrid", Grids.of(tooLarge()).getClass().getSimpleName());
+    }
+
+    @Test
+    public void testSparseGridCells() {
+        Grid grid = Grids.sparse(new char[][]{{'@', ' ', 'A'}, {}, {' ', 'x'}});
+
+        assertEquals(3, grid.rows());
+        assertEquals(3, grid.columns());
+        assertEquals('@', grid.charAt(0, 0));
+        assertEquals(' ', grid.charAt(0, 1));
+        assertEquals('A', grid.charAt(0, 2));
+        assertEquals(' ', grid.charAt(1, 0));
+        assertEquals('x', grid.charAt(2, 1));
+        assertEquals(' ', grid.charAt(-1, 0));
+        assertEquals(' ', grid.charAt(2, 5));
+    }
+
+    @Test
+    public void testSparseGridSolvesLikeFlatGrid() {
+        Map<String, String> expected = solve(Grids.flat(TestMaps.simple()));
+
+        assertEquals(expected, solve(Grids.sparse(TestMaps.simple())));
+        assertEquals(expected, solve(Grids.sparse(mostlyEmpty())));
+    }
+
+    @Test
+    public void testParse() {
+        StringBuilder content = new StringBuilder();
+        for(char[] row : mostlyEmpty()) content.append(row).append("\r\n");
+        byte[] bytes = content.toString().getBytes(StandardCharsets.US_ASCII);
+
+        Grid grid = Grids.parse(bytes, 0, bytes.length);
+
+        assertEquals("FlatGrid", grid.getClass().getSimpleName());
+        assertEquals(50, grid.columns());
+        assertEquals(solve(Grids.flat(TestMaps.simple())), solve(grid));
+
+        content.setLength(0);
+        for(char[] row : hugeAndMostlyEmpty()) content.append(row).append("\n");
+        bytes = content.toString().getBytes(StandardCharsets.US_ASCII);
+
+        grid = Grids.parse(bytes, 0, bytes.length);
+
+        assertEquals("SparseGrid", grid.getClass().getSimpleName());
+        assertEquals(1 << 14, grid.columns());
+        assertEquals(solve(Grids.flat(TestMaps.simple())), solve(grid));
+    }
+
+    @Test
+    public void testSparseGridWithConnectivityIndexAndBidirectional() {
+        Map<String, String> expected = solve(Grids.flat(TestMaps.simple()));
+
+        FollowPath followPath = new FollowPath();
+        followPath.setGrid(Grids.sparse(mostlyEmpty()));
+        followPath.setConnectivityIndex(true);
+        assertEquals(expected, followPath.start());
+
+        followPath.setGrid(Grids.sparse(mostlyEmpty()));
+        followPath.setConnectivityIndex(false);
+        followPath.setBidirectional(true);
+        assertEquals(expected, followPath.start());
+    }
+
+    // Solving with both modes which need a flat grid
+    private static SolveResult solveWithFlatGridModes(char[][] map) {
+        FollowPath followPath = new FollowPath();
+        followPath.setConnectivityIndex(true);
+        followPath.setBidirectional(true);
+        followPath.setMap(map);
+        return followPath.tryStart();
+    }
+
+    @Test
+    public void testHugeSparseGridWithConnectivityIndexAndBidirectional() {
+        // Maps kept sparse for their size aren't unpacked, both modes fall back to the plain walk over the sparse grid
+        assertEquals(SolveResult.success(TestMaps.SIMPLE_LETTERS, TestMaps.SIMPLE_PATH), solveWithFlatGridModes(hugeAndMostlyEmpty()));
+        assertEquals(SolveResult.success("", "@-x"), solveWithFlatGridModes(tooLarge()));
+    }
+
+    @Test
+    public void testSparseStartingPositionErrors() {
+        FollowPath followPath = new FollowPath();
+        followPath.setGrid(Grids.sparse(new char[][]{{'@', '-', 'x', ' ', '@'}}));
+        Error error = assertThrows(Error.class, followPath::start);
+        assertEquals("Invalid input, two or more starting positions!", error.getMessage());
+    }
+
+    @Test
+    public void testFlatGridTooLarge() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Grids.flat(tooLarge()));
+        assertEquals("Map of 50000 x 50000 cells is too large for a flat grid, at most 2147483639 cells with the border", e.getMessage());
+    }
+}
@@ -0,0 +1,61 @@
+package test;
+
+import main.FollowPath;
+import main.MappedGrid;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedGridTest {
+
+    private MappedGrid load(String content) throws IOException {
+        Path file = Files.createTempFile("map", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return MappedGrid.open(file);
+    }
+
+    @Test
+    public void testLineIndex() throws IOException {
+        MappedGrid grid = load("@-A\r\n  |\n\n  x");
+
+        assertEquals(4, grid.rows());
+        assertEquals(3, grid.columns());
+        assertEquals(3, grid.rowLength(0));
+        assertEquals(0, grid.rowLength(2));
+        assertEquals('A', grid.charAt(0, 2));
+        assertEquals('x', grid.charAt(3, 2));
+        assertEquals(' ', grid.charAt(0, 3));
+        assertEquals(' ', grid.charAt(2, 1));
+        assertEquals(' ', grid.charAt(-1, 0));
+    }
+
+    @Test
+    public void testTrailingLineBreak() throws IOException {
+        MappedGrid grid = load("@-x\n");
+
+        assertEquals(1, grid.rows());
+        assertEquals(3, grid.rowLength(0));
+    }
+
+    @Test
+    public void testFollowPathOnMappedFile() throws IOException {
+        FollowPath followPath = new FollowPath();
+        followPath.setGrid(load(String.join("\n",
+                "@---A---+",
+                "        |",
+                "x-B-+   C",
+                "    |   |",
+                "    +---+")));
+
+        Map<String, String> result = followPath.start();
+
+        assertEquals("ACB", result.get("Letters"));
+        assertEquals("@---A---+|C|+---+|+-B-x", result.get("Path"));
+    }
+}
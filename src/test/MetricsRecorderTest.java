@@ -0,0 +1,102 @@
+package test;
+
+import main.ErrorKind;
+import main.FollowPath;
+import main.MetricsRecorder;
+import main.TraversalStats;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testListenerGetsCounters() {
+        List<TraversalStats> reported = new ArrayList<>();
+        FollowPath followPath = new FollowPath();
+        followPath.setMap(TestMaps.simple());
+        followPath.setListener(reported::add);
+
+        Map<String, String> result = followPath.start();
+
+        assertEquals(TestMaps.SIMPLE_PATH, result.get("Path"));
+        assertEquals(1, reported.size());
+        TraversalStats stats = reported.get(0);
+        assertTrue(stats.isSuccess());
+        assertEquals(23, stats.steps());
+        assertEquals(4, stats.crossings());
+        assertEquals(3, stats.letters());
+        assertEquals(0, stats.duplicateLetters());
+        assertTrue(stats.startScanNanos() >= 0);
+        assertTrue(stats.traversalNanos() >= 0);
+    }
+
+    @Test
+    public void testDuplicateLettersOnCrossings() {
+        char[][] map = TestMaps.goonies();
+        MetricsRecorder recorder = new MetricsRecorder();
+        FollowPath followPath = new FollowPath();
+        followPath.setMap(map);
+        followPath.setListener(recorder);
+
+        Map<String, String> result = followPath.start();
+
+        assertEquals(TestMaps.GOONIES_LETTERS, result.get("Letters"));
+        assertEquals(7, recorder.letters());
+        assertEquals(2, recorder.duplicateLetters());
+    }
+
+    @Test
+    public void testErrorsAreCountedByKind() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        FollowPath followPath = new FollowPath();
+        followPath.setListener(recorder);
+
+        followPath.setMap(TestMaps.simple());
+        followPath.start();
+        followPath.setMap(new char[][]{{'-', '-', 'x'}});
+        assertThrows(Error.class, followPath::start);
+        followPath.setMap(new char[][]{{'@', '-', ' ', '-', 'x'}});
+        assertThrows(Error.class, followPath::start);
+        assertThrows(Error.class, followPath::start);
+
+        assertEquals(4, recorder.traversals());
+        assertEquals(Map.of(ErrorKind.MISSING_STARTING_POSITION, 1L, ErrorKind.BROKEN_PATH, 2L), recorder.errors());
+        // Only the broken paths were walked after the successful one, one step each for '@' and '-'
+        assertEquals(23 + 2 * 2, recorder.steps());
+    }
+
+    @Test
+    public void testFlightRecorderEvent() throws Exception {
+        Path file = Files.createTempFile("traversal", ".jfr");
+        try(Recording recording = new Recording()) {
+            recording.enable("main.Traversal");
+            recording.start();
+            FollowPath followPath = new FollowPath();
+            followPath.setMap(TestMaps.simple());
+            followPath.start();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("main.Traversal"))
+                    .toList();
+            assertEquals(1, events.size());
+            assertEquals(23, events.get(0).getLong("steps"));
+            assertEquals(3, events.get(0).getLong("letters"));
+            assertNull(events.get(0).getString("error"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
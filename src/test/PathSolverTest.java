@@ -0,0 +1,182 @@
+package test;
+
+import main.ErrorKind;
+import main.FollowPath;
+import main.PathSolver;
+import main.PreparedMap;
+import main.SolveError;
+import main.SolveResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathSolverTest {
+
+    @Test
+    public void testSameResultAsFollowPath() {
+        FollowPath followPath = new FollowPath();
+        followPath.setMap(TestMaps.goonies());
+
+        PathSolver solver = new PathSolver();
+        PreparedMap preparedMap = PreparedMap.of(TestMaps.goonies());
+
+        assertTrue(preparedMap.isValid());
+        assertEquals(followPath.start(), solver.start(preparedMap));
+        // The scratch state of the thread is reused, letters of the first solve must not be seen as visited
+        assertEquals(followPath.start(), solver.start(preparedMap));
+    }
+
+    @Test
+    public void testPreparedMapIsACopy() {
+        char[][] map = TestMaps.goonies();
+        PreparedMap preparedMap = PreparedMap.of(map);
+        map[3][0] = ' ';
+
+        assertEquals(TestMaps.GOONIES_LETTERS, new PathSolver().start(preparedMap).get("Letters"));
+    }
+
+    @Test
+    public void testInvalidMap() {
+        PreparedMap preparedMap = PreparedMap.of(new char[][]{{'@', '-', 'A', '-', '+'}});
+        PathSolver solver = new PathSolver();
+
+        assertFalse(preparedMap.isValid());
+        assertEquals(ErrorKind.MISSING_END_POSITION, solver.solve(preparedMap).error().kind());
+        Error error = assertThrows(Error.class, () -> solver.start(preparedMap));
+        assertEquals("Invalid input, missing end position!", error.getMessage());
+    }
+
+    @Test
+    public void testConcurrentSolves() throws Exception {
+        PathSolver solver = new PathSolver();
+        PreparedMap goonies = PreparedMap.of(TestMaps.goonies());
+        PreparedMap broken = PreparedMap.of(new char[][]{{'@', '-', 'A', '-', '+', '-', 'B', '-', 'x'}});
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SolveResult>> futures = new ArrayList<>();
+            for(int i = 0; i < 1000; i++) {
+                PreparedMap preparedMap = i % 3 == 0 ? broken : goonies;
+                futures.add(executor.submit(() -> solver.solve(preparedMap)));
+            }
+            for(int i = 0; i < futures.size(); i++) {
+                SolveResult result = futures.get(i).get();
+                if(i % 3 == 0) {
+                    assertEquals(ErrorKind.FAKE_TURN, result.error().kind());
+                } else {
+                    assertEquals(Map.of("Letters", TestMaps.GOONIES_LETTERS, "Path", TestMaps.GOONIES_PATH), result.orThrow());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        PreparedMap preparedMap = PreparedMap.of(TestMaps.goonies());
+
+        assertEquals(new SolveError(ErrorKind.BUDGET_EXCEEDED, 5, 4, 10), new PathSolver(10, null).solve(preparedMap).error());
+        assertTrue(new PathSolver(39, Duration.ofMinutes(1)).solve(preparedMap).isSuccess());
+    }
+
+    @Test
+    public void testSparseMap() {
+        // Runs longer than SegmentIndex.MIN_LENGTH in the corner of an area of 2^28 cells, which stays sparse.
+        // The segment index is built from the stored cells, jagged rows keep the map small.
+        String line = "-".repeat(9);
+        char[][] map = new char[1 << 14][];
+        Arrays.fill(map, new char[0]);
+        map[0] = ("@" + line + "A" + line + "+" + " ".repeat((1 << 14) - 21)).toCharArray();
+        for(int i = 1; i < 10; i++) map[i] = (" ".repeat(20) + "|").toCharArray();
+        map[10] = ("x" + line + "B" + line + "+").toCharArray();
+
+        assertEquals(SolveResult.success("AB", "@" + line + "A" + line + "+" + "|".repeat(9) + "+" + line + "B" + line + "x"),
+                new PathSolver().solve(PreparedMap.of(map)));
+    }
+
+    // A corridor of millions of steps with a letter every thousand cells
+    private static char[][] longMap() {
+        char[][] map = new char[1][5_000_000];
+        Arrays.fill(map[0], '-');
+        for(int i = 500; i < map[0].length; i += 1000) map[0][i] = (char) ('A' + i / 1000 % 26);
+        map[0][0] = '@';
+        map[0][map[0].length - 1] = 'x';
+        return map;
+    }
+
+    @Test
+    public void testSolveAsync() throws Exception {
+        PathSolver solver = new PathSolver();
+        PreparedMap preparedMap = PreparedMap.of(TestMaps.goonies());
+
+        assertEquals(solver.solve(preparedMap), solver.solveAsync(preparedMap, null).get());
+        assertEquals(solver.solve(preparedMap), solver.solveAsync(preparedMap, Instant.now().plusSeconds(60)).get());
+        // Times too long to count in nanoseconds are as good as no limit
+        assertEquals(solver.solve(preparedMap), solver.solveAsync(preparedMap, Instant.MAX).get());
+        assertEquals(solver.solve(preparedMap), new PathSolver(0, ChronoUnit.FOREVER.getDuration()).solve(preparedMap));
+    }
+
+    @Test
+    public void testSolveAsyncInvalidMap() throws Exception {
+        PreparedMap preparedMap = PreparedMap.of(new char[][]{{'@', '-', 'A', '-', '+'}});
+        PathSolver solver = new PathSolver();
+
+        // The start error, even when the deadline has passed already
+        assertEquals(solver.solve(preparedMap), solver.solveAsync(preparedMap, Instant.now().minusSeconds(1)).get());
+        assertEquals(solver.solve(preparedMap), solver.solveAsync(preparedMap, Instant.MIN).get());
+    }
+
+    @Test
+    public void testSolveAsyncDeadline() throws Exception {
+        PreparedMap preparedMap = PreparedMap.of(longMap());
+
+        // Stopped on the way, with the letters collected up to the step it got to
+        SolveResult result = new PathSolver().solveAsync(preparedMap, Instant.now().plusMillis(5)).get();
+        assertEquals(ErrorKind.BUDGET_EXCEEDED, result.error().kind());
+        assertTrue(result.error().step() < 5_000_000);
+        assertEquals((result.error().step() + 499) / 1000, result.letters().length());
+
+        // A solve still waiting for a thread at its deadline never starts
+        List<Runnable> queued = new ArrayList<>();
+        CompletableFuture<SolveResult> future = new PathSolver().solveAsync(preparedMap, Instant.now(), queued::add);
+        assertEquals(new SolveError(ErrorKind.BUDGET_EXCEEDED, 0, 0, 0), future.get().error());
+        assertEquals("", future.get().letters());
+        queued.forEach(Runnable::run);
+    }
+
+    @Test
+    public void testSolveAsyncCancelled() throws Exception {
+        PreparedMap preparedMap = PreparedMap.of(longMap());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(started::countDown);
+            CompletableFuture<SolveResult> future = new PathSolver().solveAsync(preparedMap, null, executor);
+            started.await();
+            future.cancel(true);
+
+            assertThrows(CancellationException.class, future::join);
+            // The thread is free again once the traversal noticed
+            assertEquals(ErrorKind.FAKE_TURN, executor.submit(() -> new PathSolver().solve(PreparedMap.of(new char[][]{{'@', '-', '+', 'x'}})))
+                    .get(10, TimeUnit.SECONDS).error().kind());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
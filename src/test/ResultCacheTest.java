@@ -0,0 +1,82 @@
+package test;
+
+import main.FollowPath;
+import main.ResultCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    private static final char[][] MAP = TestMaps.simple();
+
+    private static final char[][] OTHER_MAP = {
+            {'@', '-', 'A', '-', '-', '+'},
+            {' ', ' ', ' ', ' ', ' ', '|'},
+            {' ', ' ', ' ', ' ', ' ', 'x'},
+    };
+
+    private static final char[][] INVALID_MAP = {
+            {'@', '-', 'A', '-', '+', '-', 'B', '-', 'x'},
+    };
+
+    private Map<String, String> solve(ResultCache cache, char[][] map) {
+        FollowPath followPath = new FollowPath();
+        followPath.setCache(cache);
+        followPath.setMap(map);
+        return followPath.start();
+    }
+
+    @Test
+    public void testHitReturnsSameResult() {
+        ResultCache cache = new ResultCache(10_000);
+
+        Map<String, String> first = solve(cache, MAP);
+        Map<String, String> second = solve(cache, MAP);
+
+        assertEquals(first, second);
+        assertEquals(TestMaps.SIMPLE_LETTERS, second.get("Letters"));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    public void testDifferentMapsAreDifferentEntries() {
+        ResultCache cache = new ResultCache(10_000);
+
+        solve(cache, MAP);
+        Map<String, String> other = solve(cache, OTHER_MAP);
+
+        assertEquals("A", other.get("Letters"));
+        assertEquals(2, cache.stats().size());
+        assertEquals(0, cache.stats().hits());
+    }
+
+    @Test
+    public void testErrorsAreCached() {
+        ResultCache cache = new ResultCache(10_000);
+
+        assertThrows(Error.class, () -> solve(cache, INVALID_MAP));
+        Error error = assertThrows(Error.class, () -> solve(cache, INVALID_MAP));
+
+        assertEquals("Invalid input, fake turn!", error.getMessage());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        // Room for only one of the results
+        ResultCache cache = new ResultCache(100);
+
+        solve(cache, MAP);
+        solve(cache, OTHER_MAP);
+        solve(cache, MAP);
+
+        assertEquals(1, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+        assertEquals(0, cache.stats().hits());
+    }
+}
@@ -0,0 +1,119 @@
+package test;
+
+import main.SolveCli;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolveCliTest {
+
+    private static final String VALID_MAP = """
+            @---A---+
+                    |
+            x-B-+   C
+                |   |
+                +---+""";
+
+    private static final String INVALID_MAP = "@-A-+-B-x";
+
+    private static final String VALID_RESULT = "\"Letters\":\"ACB\",\"Path\":\"@---A---+|C|+---+|+-B-x\"}";
+
+    private static final String INVALID_RESULT = "\"error\":\"Invalid input, fake turn!\"}";
+
+    private static ReadableByteChannel input(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String lengthPrefixed(String map) {
+        return map.getBytes(StandardCharsets.UTF_8).length + "\n" + map;
+    }
+
+    @Test
+    public void testBlankLineFraming() throws IOException {
+        String text = "\n\n" + VALID_MAP + "\n\n" + INVALID_MAP + "\r\n\r\n\r\n" + VALID_MAP.replace("\n", "\r\n") + "\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SolveCli.Stats stats = SolveCli.run(List.of(input(text)), SolveCli.Framing.BLANK_LINE, Channels.newChannel(output), 2);
+
+        assertEquals("{\"map\":0," + VALID_RESULT + "\n{\"map\":1," + INVALID_RESULT + "\n{\"map\":2," + VALID_RESULT + "\n",
+                output.toString(StandardCharsets.UTF_8));
+        assertEquals(3, stats.maps());
+        assertEquals(1, stats.failed());
+    }
+
+    @Test
+    public void testLengthPrefixedFraming() throws IOException {
+        // A map with an empty row, which blank lines couldn't separate
+        String mapWithEmptyRow = "@-A-+\n\n    x";
+        String text = lengthPrefixed(VALID_MAP) + "\n" + lengthPrefixed(mapWithEmptyRow) + "\r\n" + lengthPrefixed(INVALID_MAP);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SolveCli.Stats stats = SolveCli.run(List.of(input(text)), SolveCli.Framing.LENGTH_PREFIXED, Channels.newChannel(output), 1);
+
+        assertEquals("{\"map\":0," + VALID_RESULT + "\n{\"map\":1,\"error\":\"Invalid input, broken path!\"}\n{\"map\":2," + INVALID_RESULT + "\n",
+                output.toString(StandardCharsets.UTF_8));
+        assertEquals(3, stats.maps());
+        assertEquals(2, stats.failed());
+        assertEquals(VALID_MAP.length() + mapWithEmptyRow.length() + INVALID_MAP.length(), stats.bytes());
+    }
+
+    @Test
+    public void testOrderAcrossInputs() throws IOException {
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            (i < 500 ? first : second).append(i % 7 == 0 ? INVALID_MAP : VALID_MAP).append("\n\n");
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SolveCli.Stats stats = SolveCli.run(List.of(input(first.toString()), input(second.toString())), SolveCli.Framing.BLANK_LINE,
+                Channels.newChannel(output), 4);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1000, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals("{\"map\":" + i + "," + (i % 7 == 0 ? INVALID_RESULT : VALID_RESULT), lines[i]);
+        }
+        assertEquals(1000, stats.maps());
+        assertEquals(143, stats.failed());
+    }
+
+    @Test
+    public void testMapLargerThanReadChunk() throws IOException {
+        // A 2 MB corridor spans more than one chunk of FrameReader.CHUNK_SIZE bytes
+        int length = 2 * 1024 * 1024;
+        String map = "@" + "-".repeat(length - 2) + "x";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SolveCli.run(List.of(input(VALID_MAP + "\n\n" + map + "\n\n" + VALID_MAP)), SolveCli.Framing.BLANK_LINE, Channels.newChannel(output), 2);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"map\":1,\"Letters\":\"\",\"Path\":\"" + map + "\"}", lines[1]);
+        assertEquals("{\"map\":2," + VALID_RESULT, lines[2]);
+    }
+
+    @Test
+    public void testInvalidFrame() {
+        String text = lengthPrefixed(VALID_MAP) + "\n" + lengthPrefixed(VALID_MAP).substring(0, 20);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        SolveCli.InvalidInputException e = assertThrows(SolveCli.InvalidInputException.class,
+                () -> SolveCli.run(List.of(input(text)), SolveCli.Framing.LENGTH_PREFIXED, Channels.newChannel(output), 2));
+
+        assertTrue(e.getMessage().startsWith("Invalid map 1: Truncated map"), e.getMessage());
+        // The map before it is still written
+        assertEquals("{\"map\":0," + VALID_RESULT + "\n", output.toString(StandardCharsets.UTF_8));
+
+        assertThrows(SolveCli.InvalidInputException.class,
+                () -> SolveCli.run(List.of(input("12x\n" + VALID_MAP)), SolveCli.Framing.LENGTH_PREFIXED, Channels.newChannel(output), 2));
+    }
+}
@@ -0,0 +1,64 @@
+package test;
+
+import main.SolverServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolverServerTest {
+
+    private SolverServer server;
+    private HttpClient client;
+
+    private HttpResponse<String> post(String map) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.address().getPort() + "/solve");
+        return client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(map)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = SolverServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 8);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testSolvesMap() throws IOException, InterruptedException {
+        HttpResponse<String> response = post("@---A---+\n        |\nx-B-+   C\n    |   |\n    +---+\n");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"Letters\":\"ACB\",\"Path\":\"@---A---+|C|+---+|+-B-x\"}", response.body());
+    }
+
+    @Test
+    public void testInvalidMap() throws IOException, InterruptedException {
+        HttpResponse<String> response = post("@-A-+-B-x");
+
+        assertEquals(422, response.statusCode());
+        assertEquals("{\"error\":\"Invalid input, fake turn!\"}", response.body());
+    }
+
+    @Test
+    public void testManyRequestsOverOneClient() throws IOException, InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            HttpResponse<String> response = post("@-A-x");
+
+            assertEquals(200, response.statusCode());
+            assertEquals("{\"Letters\":\"A\",\"Path\":\"@-A-x\"}", response.body());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package test;
+
+import java.util.Arrays;
+
+// The example maps the tests share, a new copy on every call since tests edit them
+final class TestMaps {
+
+    static final String SIMPLE_LETTERS = "ACB";
+    static final String SIMPLE_PATH = "@---A---+|C|+---+|+-B-x";
+
+    static final String GOONIES_LETTERS = "GOONIES";
+    static final String GOONIES_PATH = "@-G-O-+|+-+|O||+-O-N-+|I|+-+|+-I-+|ES|x";
+
+    private TestMaps() {
+    }
+
+    static char[][] simple() {
+        return new char[][]{
+                {'@', '-', '-', '-', 'A', '-', '-', '-', '+'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '|'},
+                {'x', '-', 'B', '-', '+', ' ', ' ', ' ', 'C'},
+                {' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', '+', '-', '-', '-', '+'},
+        };
+    }
+
+    // Letters on crossings, passed twice and collected once
+    static char[][] goonies() {
+        return new char[][]{
+                {' ', ' ', ' ', ' ', '+', '-', 'O', '-', 'N', '-', '+', ' ', ' '},
+                {' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', ' ', ' ', '|', ' ', ' '},
+                {' ', ' ', ' ', ' ', '|', ' ', ' ', ' ', '+', '-', 'I', '-', '+'},
+                {'@', '-', 'G', '-', 'O', '-', '+', ' ', '|', ' ', '|', ' ', '|'},
+                {' ', ' ', ' ', ' ', '|', ' ', '|', ' ', '+', '-', '+', ' ', 'E'},
+                {' ', ' ', ' ', ' ', '+', '-', '+', ' ', ' ', ' ', ' ', ' ', 'S'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', '|'},
+                {' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', ' ', 'x'},
+        };
+    }
+
+    // A long path over every other row of a square, with a letter on every turn. The size is one more than a multiple of
+    // four, so that the last row runs to the right and ends in the bottom right corner.
+    static char[][] serpentine(int size) {
+        char[][] map = new char[size][size];
+        for(char[] row : map) Arrays.fill(row, ' ');
+        for(int i = 0; i < size; i += 2) {
+            Arrays.fill(map[i], '-');
+            if(i + 1 < size) map[i + 1][i % 4 == 0 ? size - 1 : 0] = '|';
+            map[i][0] = i % 4 == 0 ? '+' : (char) ('A' + i / 2 % 26);
+            map[i][size - 1] = i % 4 == 0 ? (char) ('A' + i / 2 % 26) : '+';
+        }
+        map[0][0] = '@';
+        map[size - 1][size - 1] = 'x';
+        return map;
+    }
+}
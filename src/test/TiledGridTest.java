@@ -0,0 +1,92 @@
+package test;
+
+import main.FollowPath;
+import main.ResultCache;
+import main.TiledGrid;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TiledGridTest {
+
+    private Path write(String content) throws IOException {
+        Path file = Files.createTempFile("map", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    public void testCells() throws IOException {
+        try(TiledGrid grid = TiledGrid.open(write("@-A\r\n  |\n\n  x"), 8, 3)) {
+            assertEquals(4, grid.rows());
+            assertEquals(3, grid.columns());
+            assertEquals(0, grid.rowLength(2));
+            assertEquals('A', grid.charAt(0, 2));
+            assertEquals('x', grid.charAt(3, 2));
+            assertEquals(' ', grid.charAt(0, 3));
+            assertEquals(' ', grid.charAt(-1, 0));
+        }
+    }
+
+    @Test
+    public void testInvalidTileSize() throws IOException {
+        Path file = write("@-x");
+        assertThrows(IllegalArgumentException.class, () -> TiledGrid.open(file, 12, 4));
+        assertThrows(IllegalArgumentException.class, () -> TiledGrid.open(file, 8, 2));
+    }
+
+    @Test
+    public void testSameResultAsInMemory() throws IOException {
+        // A long path zigzagging over many tiles
+        char[][] map = TestMaps.serpentine(101);
+        StringBuilder content = new StringBuilder();
+        for(char[] row : map) content.append(row).append('\n');
+
+        FollowPath inMemory = new FollowPath();
+        inMemory.setMap(map);
+        Map<String, String> expected = inMemory.start();
+
+        try(TiledGrid grid = TiledGrid.open(write(content.toString()), 16, 4)) {
+            FollowPath tiled = new FollowPath();
+            tiled.setGrid(grid);
+
+            assertEquals(expected, tiled.start());
+
+            TiledGrid.Stats stats = grid.stats();
+            assertTrue(stats.evictions() > 0);
+            assertTrue(stats.tiles() <= 4);
+            assertTrue(stats.prefetches() > 0);
+            assertTrue(stats.hitRate() > 0);
+            // 7 x 7 tiles, each crossed by 8 rows of the path and loaded at most once for each of them
+            assertTrue(stats.loads() <= 8 * 49, stats.toString());
+        }
+    }
+
+    @Test
+    public void testScansReadTheFileOnce() throws IOException {
+        // 16 x 16 tiles, far more than the cache holds in one band. The path is at the end, so the start scan reads every row.
+        StringBuilder content = new StringBuilder();
+        for(int row = 0; row < 255; row++) content.append(" ".repeat(256)).append('\n');
+        content.append(" ".repeat(253)).append("x-@\n");
+        Path file = write(content.toString());
+
+        try(TiledGrid grid = TiledGrid.open(file, 16, 4)) {
+            FollowPath followPath = new FollowPath();
+            followPath.setGrid(grid);
+            // Hashing the map for the cache is the second scan
+            followPath.setCache(new ResultCache(4));
+
+            assertEquals(Map.of("Letters", "", "Path", "@-x"), followPath.start());
+
+            TiledGrid.Stats stats = grid.stats();
+            assertEquals(1, stats.loads());
+            assertTrue(stats.bytesRead() <= 2 * Files.size(file) + 16 * 16, stats.toString());
+        }
+    }
+}